@@ -0,0 +1,108 @@
+package Sudoku;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+/**
+ * Visualização para terminais ANSI: o tabuleiro fica fixo nas primeiras
+ * Board.FRAME_LINES linhas da tela e os comandos rolam numa região abaixo dele.
+ * Depois do primeiro quadro só as células que mudaram são reescritas (salva o
+ * cursor, posiciona, escreve o dígito e restaura), com as pistas fixas
+ * destacadas em cor. O layout vem de Board.renderFrame, o mesmo do print.
+ */
+class AnsiBoardView implements BoardView {
+    private static final String ESC = "\u001b[";
+    private static final String FIXED = ESC + "1;36m"; // ciano em negrito
+    private static final String RESET = ESC + "0m";
+    private static final String SAVE = "\u001b7", RESTORE = "\u001b8";
+    private static final String EOL = ESC + "K\r\n";   // limpa o resto da linha
+
+    private final PrintStream out;
+    private final StringBuilder frame = new StringBuilder(1024);
+    // último quadro desenhado: valor | 16 se pista fixa; -1 antes do primeiro
+    private final int[] last = new int[81];
+    private final Board.CellWriter cell = (o, b, r, c) -> {
+        int code = code(b, r, c);
+        drawCell(code);
+        last[r*9 + c] = code;
+    };
+    private boolean started;
+
+    AnsiBoardView(PrintStream out) {
+        this.out = out;
+        Arrays.fill(last, -1);
+    }
+
+    @Override
+    public void show(Board b) {
+        if (!started) {
+            // limpa a tela, desenha e prende a rolagem abaixo do tabuleiro
+            frame.append(ESC).append("2J");
+            drawFull(b);
+            int first = Board.FRAME_LINES + 1;
+            frame.append(ESC).append(first).append('r');
+            frame.append(ESC).append(first).append(";1H");
+            started = true;
+        } else {
+            frame.append(SAVE);
+            for (int i=0;i<81;i++) {
+                int r = i/9, c = i%9;
+                int code = code(b, r, c);
+                if (code == last[i]) continue;
+                // posições da tela começam em 1
+                frame.append(ESC).append(Board.frameLine(r) + 1).append(';')
+                     .append(Board.frameColumn(c) + 1).append('H');
+                drawCell(code);
+                last[i] = code;
+            }
+            frame.append(RESTORE);
+        }
+        flush();
+    }
+
+    @Override
+    public void redraw(Board b) {
+        if (!started) { show(b); return; }
+        frame.append(SAVE);
+        drawFull(b);
+        frame.append(RESTORE);
+        flush();
+    }
+
+    @Override
+    public void close() {
+        if (!started) return;
+        frame.append(ESC).append('r'); // devolve a rolagem para a tela inteira
+        flush();
+        started = false;
+    }
+
+    private void drawFull(Board b) {
+        frame.append(ESC).append("1;1H");
+        try {
+            Board.renderFrame(frame, EOL, b, cell);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringBuilder não lança
+        }
+    }
+
+    private void drawCell(int code) {
+        int v = code & 0xF;
+        boolean fixed = (code & 16) != 0;
+        if (fixed) frame.append(FIXED);
+        frame.append(v == 0 ? '.' : (char) ('0' + v));
+        if (fixed) frame.append(RESET);
+    }
+
+    private static int code(Board b, int r, int c) {
+        return b.get(r,c) | (b.isFixed(r,c) ? 16 : 0);
+    }
+
+    private void flush() {
+        out.print(frame);
+        out.flush();
+        frame.setLength(0);
+    }
+}
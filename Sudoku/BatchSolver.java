@@ -0,0 +1,159 @@
+package Sudoku;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Modo batch: lê puzzles no formato de 81 caracteres por linha, resolve e
+ * escreve uma solução por linha, na mesma ordem da entrada.
+ *
+ * O pipeline tem três estágios: a thread que chama lê lotes de linhas,
+ * um pool de workers resolve cada lote (um solver por thread) e uma thread
+ * de saída escreve os lotes na ordem em que foram lidos. A fila entre leitura
+ * e saída é limitada, então a leitura espera se a saída ficar para trás.
+ *
+ * Linhas vazias ou começando com '#' são ignoradas; linhas que não têm
+ * exatamente 81 caracteres, puzzles inválidos ou sem solução são repetidos
+ * sem alteração e contados no resumo em stderr.
+ */
+class BatchSolver {
+    private static final int BATCH = 1024;          // linhas por tarefa
+    private static final int READ_BUFFER = 1 << 16; // chars
+    private static final Future<StringBuilder> END = new CompletableFuture<>();
+
+    private final SolverBackend backend;
+    private final int workers;
+    private final AtomicLong unsolved = new AtomicLong();
+
+    BatchSolver(SolverBackend backend) {
+        this(backend, Runtime.getRuntime().availableProcessors());
+    }
+
+    BatchSolver(SolverBackend backend, int workers) {
+        this.backend = backend;
+        this.workers = workers;
+    }
+
+    /** Resolve os puzzles de path ("-" para stdin) e escreve as soluções em out. */
+    public void run(String path, OutputStream out) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        BufferedReader in = "-".equals(path)
+                ? new BufferedReader(Channels.newReader(Channels.newChannel(System.in), StandardCharsets.UTF_8), READ_BUFFER)
+                : new BufferedReader(Channels.newReader(Files.newByteChannel(Paths.get(path)), StandardCharsets.UTF_8), READ_BUFFER);
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.US_ASCII);
+
+        ThreadLocal<SudokuSolver> solvers = ThreadLocal.withInitial(backend::create);
+        ThreadLocal<Board> boards = ThreadLocal.withInitial(Board::new);
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        BlockingQueue<Future<StringBuilder>> pending = new ArrayBlockingQueue<>(workers * 4);
+        Output output = new Output(pending, writer);
+        output.start();
+
+        long puzzles = 0;
+        try (in) {
+            String[] lines = new String[BATCH];
+            int n = 0;
+            for (String line; (line = in.readLine()) != null; ) {
+                line = line.trim();
+                if (line.isEmpty() || line.charAt(0) == '#') continue;
+                lines[n++] = line;
+                puzzles++;
+                if (n == BATCH) {
+                    pending.put(submit(pool, solvers, boards, lines, n));
+                    lines = new String[BATCH];
+                    n = 0;
+                }
+            }
+            if (n > 0) pending.put(submit(pool, solvers, boards, lines, n));
+        } finally {
+            pending.put(END);
+            output.join();
+            pool.shutdown();
+        }
+        if (output.failure != null) throw output.failure;
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.err.printf("%d puzzles em %.2f s (%.0f/s), %d sem solução%n",
+                puzzles, seconds, puzzles / seconds, unsolved.get());
+    }
+
+    private Future<StringBuilder> submit(ExecutorService pool, ThreadLocal<SudokuSolver> solvers,
+                                         ThreadLocal<Board> boards, String[] lines, int n) {
+        return pool.submit(() -> {
+            SudokuSolver solver = solvers.get();
+            Board b = boards.get();
+            StringBuilder sb = new StringBuilder(n * 82);
+            for (int k=0;k<n;k++) solveLine(solver, b, lines[k], sb);
+            return sb;
+        });
+    }
+
+    private void solveLine(SudokuSolver solver, Board b, String line, StringBuilder sb) {
+        boolean ok = line.length() == 81;
+        if (ok) {
+            try {
+                b.load(line, 0);
+                ok = solver.solve(b);
+            } catch (IllegalArgumentException e) {
+                ok = false;
+            }
+        }
+        if (ok) {
+            for (int i=0;i<81;i++) sb.append((char) ('0' + b.get(i / 9, i % 9)));
+        } else {
+            unsolved.incrementAndGet();
+            sb.append(line);
+        }
+        sb.append('\n');
+    }
+
+    /** Estágio de saída: escreve os lotes na ordem em que foram enfileirados. */
+    private static final class Output extends Thread {
+        private final BlockingQueue<Future<StringBuilder>> pending;
+        private final Writer writer;
+        private volatile IOException failure;
+
+        Output(BlockingQueue<Future<StringBuilder>> pending, Writer writer) {
+            super("batch-output");
+            this.pending = pending;
+            this.writer = writer;
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (Future<StringBuilder> f; (f = pending.take()) != END; ) {
+                    // depois de uma falha só drena a fila, para a leitura não travar
+                    if (failure != null) continue;
+                    try {
+                        writer.append(f.get());
+                    } catch (IOException e) {
+                        failure = e;
+                    } catch (ExecutionException e) {
+                        failure = new IOException(e.getCause());
+                    }
+                }
+                if (failure == null) writer.flush();
+            } catch (IOException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
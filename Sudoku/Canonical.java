@@ -0,0 +1,198 @@
+package Sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Forma canônica de um tabuleiro sob o grupo de simetrias do Sudoku
+ * (linhas dentro das faixas, faixas, colunas dentro das pilhas, pilhas,
+ * transposição e troca de dígitos): a menor sequência lexicográfica das 81
+ * células (0 = vazia) entre todas as variantes. Dois puzzles são isomorfos
+ * se e só se têm a mesma forma canônica.
+ *
+ * Para cada uma das 2·1296 escolhas de transposição e ordem das colunas, as
+ * linhas são escolhidas por branch-and-bound contra a melhor forma até agora;
+ * os dígitos são renomeados por ordem de primeira aparição, que é a troca de
+ * dígitos mínima para uma disposição fixa. Na primeira linha os rótulos são
+ * sempre 1, 2, 3... na ordem, então ela só depende do padrão de vazias: só
+ * entram as linhas e ordens de coluna que atingem o menor padrão possível.
+ * Nas demais, a posição da primeira célula preenchida (mais vazias no começo
+ * sempre vencem) corta a maioria dos ramos antes de renomear.
+ * Guarda estado interno: uma instância por thread.
+ */
+final class Canonical {
+    private static final int MAX = 127;      // maior que qualquer célula: linha ainda sem melhor
+    private static final int MAX_KEY = 1 << 9;   // maior que qualquer bit de linha
+
+    private static final int[][] PERM3 = { {0,1,2}, {0,2,1}, {1,0,2}, {1,2,0}, {2,0,1}, {2,1,0} };
+    // PERM_BITS[p][m]: padrão de 3 bits m (bit 2 = primeira coluna) com as colunas na ordem p
+    private static final int[][] PERM_BITS = new int[6][8];
+    // ordens de coluna: pilhas permutadas e colunas permutadas dentro de cada pilha
+    private static final int ORDERS = 1296;
+    private static final int[][] COLUMN_ORDERS = new int[ORDERS][9];
+    private static final int[][] ORDER_STACKS = new int[ORDERS][3]; // pilha de origem de cada pilha
+    private static final int[][] ORDER_PERMS = new int[ORDERS][3];  // índice em PERM3 dentro de cada pilha
+    static {
+        for (int p=0;p<6;p++)
+            for (int m=0;m<8;m++)
+                for (int k=0;k<3;k++)
+                    PERM_BITS[p][m] |= ((m >> (2 - PERM3[p][k])) & 1) << (2 - k);
+        int n = 0;
+        for (int[] stacks : PERM3)
+            for (int a=0;a<6;a++)
+                for (int b=0;b<6;b++)
+                    for (int c=0;c<6;c++) {
+                        int[] inner = { a, b, c };
+                        for (int s=0;s<3;s++) {
+                            ORDER_STACKS[n][s] = stacks[s];
+                            ORDER_PERMS[n][s] = inner[s];
+                            for (int k=0;k<3;k++)
+                                COLUMN_ORDERS[n][s*3 + k] = stacks[s]*3 + PERM3[inner[s]][k];
+                        }
+                        n++;
+                    }
+    }
+
+    private final int[][] grids = new int[2][81];       // original e transposto
+    private final int[][][] patterns = new int[2][9][3]; // células preenchidas de cada linha, por pilha
+    private final byte[] best = new byte[81];
+    private final int[][] minKeys = new int[2][9];       // menor padrão possível de cada linha
+    private final int[] bestLead = new int[9];           // primeira célula preenchida da melhor linha (bit)
+    private final long[] labels = new long[10];          // renomeação (um nibble por dígito) por profundidade
+    private final int[] nextLabel = new int[10];
+    private final int[] rowsUsed = new int[10];          // máscara de linhas usadas por profundidade
+    private int[] grid;
+    private int[][] pattern;
+    private int order;
+
+    /** Escreve em out (81 posições, r*9+c) a forma canônica de b. */
+    public void canonicalize(Board b, byte[] out) {
+        for (int t=0;t<2;t++)
+            for (int r=0;r<9;r++) Arrays.fill(patterns[t][r], 0);
+        for (int r=0;r<9;r++) {
+            for (int c=0;c<9;c++) {
+                int v = b.get(r,c);
+                grids[0][r*9 + c] = v;
+                grids[1][c*9 + r] = v;
+                if (v == 0) continue;
+                patterns[0][r][c / 3] |= 1 << (2 - c % 3);
+                patterns[1][c][r / 3] |= 1 << (2 - r % 3);
+            }
+        }
+        int first = MAX_KEY;
+        for (int t=0;t<2;t++) {
+            for (int r=0;r<9;r++) {
+                minKeys[t][r] = minKey(patterns[t][r]);
+                first = Math.min(first, minKeys[t][r]);
+            }
+        }
+        Arrays.fill(best, (byte) MAX);
+        Arrays.fill(bestLead, MAX_KEY);
+        labels[0] = 0;
+        nextLabel[0] = 0;
+        rowsUsed[0] = 0;
+        for (int t=0;t<2;t++) {
+            grid = grids[t];
+            pattern = patterns[t];
+            for (int r=0;r<9;r++) {
+                if (minKeys[t][r] != first) continue;
+                for (int o=0;o<ORDERS;o++) {
+                    if (key(r, o) != first) continue;
+                    order = o;
+                    tryRow(0, r);
+                }
+            }
+        }
+        System.arraycopy(best, 0, out, 0, 81);
+    }
+
+    /** Hash de 64 bits da forma canônica: igual para puzzles isomorfos. */
+    public long hash(Board b) {
+        byte[] form = new byte[81];
+        canonicalize(b, form);
+        return hash(form);
+    }
+
+    /** FNV-1a sobre as 81 células, com a mistura final do MurmurHash3. */
+    static long hash(byte[] form) {
+        long h = 0xcbf29ce484222325L;
+        for (int i=0;i<81;i++) h = (h ^ form[i]) * 0x100000001b3L;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        return h ^ (h >>> 33);
+    }
+
+    /** Padrão de preenchidas da linha r na ordem de colunas atual (bit 8 = primeira coluna). */
+    private int key(int r, int o) {
+        int[] p = pattern[r], stacks = ORDER_STACKS[o], perms = ORDER_PERMS[o];
+        return PERM_BITS[perms[0]][p[stacks[0]]] << 6
+                | PERM_BITS[perms[1]][p[stacks[1]]] << 3
+                | PERM_BITS[perms[2]][p[stacks[2]]];
+    }
+
+    /** Menor padrão alcançável: pilhas com menos preenchidas antes, vazias antes dentro da pilha. */
+    private static int minKey(int[] p) {
+        int a = Integer.bitCount(p[0]), b = Integer.bitCount(p[1]), c = Integer.bitCount(p[2]);
+        int lo = Math.min(a, Math.min(b, c)), hi = Math.max(a, Math.max(b, c));
+        int mid = a + b + c - lo - hi;
+        return ((1 << lo) - 1) << 6 | ((1 << mid) - 1) << 3 | ((1 << hi) - 1);
+    }
+
+    /** Escolhe a linha de origem da linha depth da saída. */
+    private void search(int depth) {
+        if (depth == 9) return;
+        int used = rowsUsed[depth];
+        int from = 0, to = 9;
+        if (depth % 3 != 0) {
+            // mesma faixa das linhas anteriores desta faixa
+            int band = Integer.numberOfTrailingZeros(used & ~rowsUsed[depth - depth % 3]) / 3;
+            from = band * 3;
+            to = from + 3;
+        }
+        for (int r=from; r<to; r++) {
+            if ((used & (1 << r)) != 0) continue;
+            if (depth % 3 == 0 && (used & (7 << (r / 3 * 3))) != 0) continue;
+            tryRow(depth, r);
+        }
+    }
+
+    /** Compara a linha r como linha depth da saída e, se não perder, desce. */
+    private void tryRow(int depth, int r) {
+        // a primeira célula preenchida mais cedo que a da melhor linha perde;
+        // mais tarde (ou linha vazia) vence, seja qual for a renomeação
+        int lead = Integer.highestOneBit(key(r, order));
+        if (lead > bestLead[depth]) return;
+        int cmp = lead < bestLead[depth] ? -1 : 0;
+
+        int[] columns = COLUMN_ORDERS[order];
+        int base = depth * 9;
+        long lab = labels[depth];
+        int next = nextLabel[depth];
+        for (int c=0;c<9;c++) {
+            int v = grid[r*9 + columns[c]];
+            int l = 0;
+            if (v != 0) {
+                l = (int) (lab >>> (v << 2)) & 0xF;
+                if (l == 0) {
+                    l = ++next;
+                    lab |= (long) l << (v << 2);
+                }
+            }
+            if (cmp == 0) {
+                if (l > best[base + c]) return;
+                if (l < best[base + c]) cmp = -1;
+            }
+            if (cmp < 0) best[base + c] = (byte) l;
+        }
+        if (cmp < 0) {
+            bestLead[depth] = lead;
+            Arrays.fill(best, base + 9, 81, (byte) MAX);
+            Arrays.fill(bestLead, depth + 1, 9, MAX_KEY);
+        }
+        labels[depth + 1] = lab;
+        nextLabel[depth + 1] = next;
+        rowsUsed[depth + 1] = rowsUsed[depth] | (1 << r);
+        search(depth + 1);
+    }
+}
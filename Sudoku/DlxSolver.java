@@ -0,0 +1,169 @@
+package Sudoku;
+
+/**
+ * Solver por Dancing Links (Algoritmo X de Knuth).
+ *
+ * O Sudoku vira um problema de cobertura exata com 324 colunas
+ * (célula preenchida, dígito na linha, na coluna e no bloco) e 729 linhas
+ * (uma por célula/dígito). A matriz é montada uma única vez no construtor
+ * e reaproveitada: as pistas são cobertas no início de cada resolução e
+ * descobertas no fim, deixando os nós como estavam.
+ * Guarda estado interno, então cada thread deve usar sua própria instância.
+ */
+class DlxSolver implements SudokuSolver {
+    private static final int COLUMNS = 324;
+    private static final int ROWS = 729;
+    private static final int NODES = 1 + COLUMNS + ROWS * 4;
+
+    // pool de nós: 0 é a raiz, 1..324 cabeçalhos das colunas, o resto são as linhas
+    private final int[] left = new int[NODES], right = new int[NODES];
+    private final int[] up = new int[NODES], down = new int[NODES];
+    private final int[] column = new int[NODES], rowOf = new int[NODES];
+    private final int[] size = new int[COLUMNS + 1];
+    private final boolean[] covered = new boolean[COLUMNS + 1];
+    private final int[] rowStart = new int[ROWS];
+
+    private final int[] givens = new int[81]; // nós das pistas cobertas, para desfazer
+    private final int[] chosen = new int[81]; // linhas escolhidas na busca atual
+    private final int[] solution = new int[81];
+    private int solutionLen;
+    private boolean captured;
+
+    DlxSolver() {
+        for (int c=0;c<=COLUMNS;c++) {
+            left[c] = c == 0 ? COLUMNS : c - 1;
+            right[c] = c == COLUMNS ? 0 : c + 1;
+            up[c] = c; down[c] = c;
+        }
+        int node = COLUMNS + 1;
+        for (int row=0; row<ROWS; row++) {
+            int i = row / 9, d = row % 9;
+            int r = i / 9, c = i % 9, b = (r/3)*3 + c/3;
+            int[] cols = { 1 + i, 82 + r*9 + d, 163 + c*9 + d, 244 + b*9 + d };
+            rowStart[row] = node;
+            for (int k=0;k<4;k++) {
+                int n = node + k, col = cols[k];
+                column[n] = col; rowOf[n] = row;
+                left[n] = node + (k + 3) % 4;
+                right[n] = node + (k + 1) % 4;
+                // insere no fim da coluna
+                up[n] = up[col]; down[n] = col;
+                down[up[col]] = n; up[col] = n;
+                size[col]++;
+            }
+            node += 4;
+        }
+    }
+
+    @Override
+    public boolean solve(Board b) {
+        int n = coverGivens(b);
+        if (n < 0) return false;
+        captured = false;
+        int found = search(0, 1);
+        uncoverGivens(n);
+        if (found == 0) return false;
+        for (int k=0;k<solutionLen;k++) {
+            int row = solution[k], i = row / 9;
+            b.set(i / 9, i % 9, row % 9 + 1);
+        }
+        return true;
+    }
+
+    @Override
+    public int countSolutions(Board b, int limit) {
+        if (limit <= 0) return 0;
+        int n = coverGivens(b);
+        if (n < 0) return 0;
+        captured = true; // não precisa guardar a solução
+        int found = search(0, limit);
+        uncoverGivens(n);
+        return found;
+    }
+
+    /** Seleciona as linhas das pistas; devolve quantas, ou -1 se houver repetição. */
+    private int coverGivens(Board b) {
+        int n = 0;
+        for (int i=0;i<81;i++) {
+            int v = b.get(i / 9, i % 9);
+            if (v == 0) continue;
+            int start = rowStart[i*9 + v - 1];
+            for (int k=0;k<4;k++) {
+                if (covered[column[start + k]]) {
+                    uncoverGivens(n);
+                    return -1;
+                }
+            }
+            selectRow(start);
+            givens[n++] = start;
+        }
+        return n;
+    }
+
+    private void uncoverGivens(int n) {
+        while (n > 0) unselectRow(givens[--n]);
+    }
+
+    private int search(int depth, int limit) {
+        if (right[0] == 0) {
+            if (!captured) {
+                System.arraycopy(chosen, 0, solution, 0, depth);
+                solutionLen = depth;
+                captured = true;
+            }
+            return 1;
+        }
+        // coluna com menos linhas restantes
+        int best = right[0];
+        for (int c=right[best]; c!=0 && size[best] > 1; c=right[c])
+            if (size[c] < size[best]) best = c;
+        if (size[best] == 0) return 0;
+
+        int solutions = 0;
+        cover(best);
+        for (int r=down[best]; r!=best && solutions < limit; r=down[r]) {
+            chosen[depth] = rowOf[r];
+            for (int j=right[r]; j!=r; j=right[j]) cover(column[j]);
+            solutions += search(depth + 1, limit - solutions);
+            for (int j=left[r]; j!=r; j=left[j]) uncover(column[j]);
+        }
+        uncover(best);
+        return solutions;
+    }
+
+    private void selectRow(int node) {
+        cover(column[node]);
+        for (int j=right[node]; j!=node; j=right[j]) cover(column[j]);
+    }
+
+    private void unselectRow(int node) {
+        for (int j=left[node]; j!=node; j=left[j]) uncover(column[j]);
+        uncover(column[node]);
+    }
+
+    private void cover(int c) {
+        covered[c] = true;
+        left[right[c]] = left[c];
+        right[left[c]] = right[c];
+        for (int i=down[c]; i!=c; i=down[i]) {
+            for (int j=right[i]; j!=i; j=right[j]) {
+                up[down[j]] = up[j];
+                down[up[j]] = down[j];
+                size[column[j]]--;
+            }
+        }
+    }
+
+    private void uncover(int c) {
+        for (int i=up[c]; i!=c; i=up[i]) {
+            for (int j=left[i]; j!=i; j=left[j]) {
+                size[column[j]]++;
+                up[down[j]] = j;
+                down[up[j]] = j;
+            }
+        }
+        left[right[c]] = c;
+        right[left[c]] = c;
+        covered[c] = false;
+    }
+}
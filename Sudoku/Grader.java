@@ -0,0 +1,499 @@
+package Sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Avalia a dificuldade de um puzzle resolvendo-o só com técnicas humanas.
+ *
+ * A cada passo aplica a técnica mais barata que faz algum progresso (coloca um
+ * dígito ou elimina candidatos) e volta a tentar da mais barata. O resultado é a
+ * técnica mais difícil que foi necessária e o seu custo como rating numérico; se
+ * nenhuma técnica avança, o puzzle exige tentativa e erro (GUESS).
+ * Guarda estado interno, então cada thread deve usar sua própria instância.
+ */
+class Grader {
+    /**
+     * Técnicas em ordem de custo (escala parecida com a do Sudoku Explainer, x10).
+     * O ordinal é gravado em 4 bits pelo PuzzleBank: no máximo 16 técnicas.
+     */
+    enum Technique {
+        HIDDEN_SINGLE(12, "single oculto"),
+        NAKED_SINGLE(23, "single nu"),
+        POINTING(26, "par/trio apontador"),
+        CLAIMING(28, "redução bloco/linha"),
+        NAKED_PAIR(30, "par nu"),
+        X_WING(32, "X-Wing"),
+        HIDDEN_PAIR(34, "par oculto"),
+        NAKED_TRIPLE(36, "trio nu"),
+        SWORDFISH(38, "Swordfish"),
+        HIDDEN_TRIPLE(40, "trio oculto"),
+        XY_WING(42, "XY-Wing"),
+        SIMPLE_COLORING(45, "cadeia de um dígito (coloração)"),
+        GUESS(100, "tentativa e erro");
+
+        final int cost;
+        final String label;
+
+        Technique(int cost, String label) {
+            this.cost = cost;
+            this.label = label;
+        }
+    }
+
+    /** Resultado da avaliação. */
+    static final class Grade {
+        final Technique hardest;
+        final int rating;
+        final int steps;
+
+        Grade(Technique hardest, int steps) {
+            this.hardest = hardest;
+            this.rating = hardest.cost;
+            this.steps = steps;
+        }
+
+        @Override
+        public String toString() {
+            return rating + " (" + hardest.label + ", " + steps + " passos)";
+        }
+    }
+
+    private static final int ALL = 0x3FE; // bits 1..9
+    private static final Technique[] TECHNIQUES = Technique.values();
+
+    private static final int[][] UNITS = Units.CELLS;
+    private static final int[] ROW = Units.ROW, COL = Units.COL, BOX = Units.BOX;
+    private static final int[][] PEERS = new int[81][20];
+    static {
+        for (int i=0;i<81;i++) {
+            int n = 0;
+            for (int j=0;j<81;j++)
+                if (j != i && sees(i, j)) PEERS[i][n++] = j;
+        }
+    }
+
+    private final int[] values = new int[81];
+    private final int[] cands = new int[81];
+    private int empty;
+    // buffers reutilizados pelas técnicas
+    private final int[] color = new int[81];
+    private final int[] queue = new int[81];
+    private final int[] picks = new int[9];
+    private final int[] masks = new int[10];
+
+    public Grade grade(Board puzzle) {
+        return grade(puzzle, Technique.GUESS);
+    }
+
+    /**
+     * Só tenta técnicas até ceiling: se o puzzle precisar de algo acima do teto,
+     * para ali e devolve GUESS, sem gastar tempo com as técnicas mais caras.
+     */
+    public Grade grade(Board puzzle, Technique ceiling) {
+        if (puzzle.hasVisibleConflicts())
+            throw new IllegalArgumentException("Tabuleiro com conflitos");
+        load(puzzle);
+        Technique hardest = Technique.HIDDEN_SINGLE;
+        int steps = 0;
+        while (empty > 0) {
+            Technique t = step(ceiling);
+            if (t.ordinal() > hardest.ordinal()) hardest = t;
+            if (t == Technique.GUESS) break;
+            steps++;
+        }
+        return new Grade(hardest, steps);
+    }
+
+    /** Escreve em out as células resolvidas até onde a última avaliação chegou (0 = não resolvida). */
+    void progress(Board out) {
+        for (int i=0;i<81;i++) out.set(i/9, i%9, values[i]);
+    }
+
+    private void load(Board b) {
+        empty = 81;
+        for (int i=0;i<81;i++) { values[i] = 0; cands[i] = ALL; }
+        for (int i=0;i<81;i++) {
+            int v = b.get(i/9, i%9);
+            if (v != 0) place(i, v);
+        }
+    }
+
+    /** Técnica mais cara com custo até maxRating (GUESS se maxRating o cobre). */
+    static Technique ceiling(int maxRating) {
+        if (maxRating < Technique.HIDDEN_SINGLE.cost)
+            throw new IllegalArgumentException("Rating máximo abaixo de " + Technique.HIDDEN_SINGLE.cost + ": " + maxRating);
+        Technique best = Technique.HIDDEN_SINGLE;
+        for (Technique t : TECHNIQUES)
+            if (t.cost <= maxRating) best = t;
+        return best;
+    }
+
+    /** Aplica a técnica mais barata (até ceiling) que avança; GUESS se nenhuma avançar. */
+    private Technique step(Technique ceiling) {
+        for (Technique t : TECHNIQUES) {
+            if (t.ordinal() > ceiling.ordinal() || t == Technique.GUESS) break;
+            if (apply(t)) return t;
+        }
+        return Technique.GUESS;
+    }
+
+    private boolean apply(Technique t) {
+        switch (t) {
+            case HIDDEN_SINGLE: return hiddenSingle();
+            case NAKED_SINGLE: return nakedSingle();
+            case POINTING: return pointing();
+            case CLAIMING: return claiming();
+            case NAKED_PAIR: return nakedSubset(2);
+            case X_WING: return fish(2);
+            case HIDDEN_PAIR: return hiddenSubset(2);
+            case NAKED_TRIPLE: return nakedSubset(3);
+            case SWORDFISH: return fish(3);
+            case HIDDEN_TRIPLE: return hiddenSubset(3);
+            case XY_WING: return xyWing();
+            case SIMPLE_COLORING: return coloring();
+            default: return false;
+        }
+    }
+
+    private void place(int i, int v) {
+        values[i] = v;
+        cands[i] = 0;
+        empty--;
+        int bit = ~(1 << v);
+        for (int p : PEERS[i]) cands[p] &= bit;
+    }
+
+    /** Remove bits de cands[i]; true se algo mudou. */
+    private boolean eliminate(int i, int bits) {
+        if ((cands[i] & bits) == 0) return false;
+        cands[i] &= ~bits;
+        return true;
+    }
+
+    // ---- singles ----
+
+    private boolean hiddenSingle() {
+        for (int u=0;u<27;u++) {
+            int[] unit = UNITS[u];
+            int once = 0, twice = 0;
+            for (int k=0;k<9;k++) {
+                int m = cands[unit[k]];
+                twice |= once & m;
+                once |= m;
+            }
+            int singles = once & ~twice;
+            if (singles == 0) continue;
+            int bit = singles & -singles;
+            for (int k=0;k<9;k++) {
+                if ((cands[unit[k]] & bit) != 0) {
+                    place(unit[k], Integer.numberOfTrailingZeros(bit));
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean nakedSingle() {
+        for (int i=0;i<81;i++) {
+            int m = cands[i];
+            if (m != 0 && (m & (m - 1)) == 0) {
+                place(i, Integer.numberOfTrailingZeros(m));
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- interseções ----
+
+    /** Dígito restrito a uma linha/coluna dentro do bloco sai do resto da linha/coluna. */
+    private boolean pointing() {
+        for (int b=0;b<9;b++) {
+            int[] box = UNITS[18+b];
+            for (int v=1;v<=9;v++) {
+                int bit = 1 << v, rows = 0, cols = 0;
+                for (int k=0;k<9;k++) {
+                    if ((cands[box[k]] & bit) == 0) continue;
+                    rows |= 1 << ROW[box[k]];
+                    cols |= 1 << COL[box[k]];
+                }
+                if (rows == 0) continue;
+                boolean changed = false;
+                if ((rows & (rows - 1)) == 0)
+                    changed |= eliminateOutsideBox(UNITS[Integer.numberOfTrailingZeros(rows)], b, bit);
+                if ((cols & (cols - 1)) == 0)
+                    changed |= eliminateOutsideBox(UNITS[9 + Integer.numberOfTrailingZeros(cols)], b, bit);
+                if (changed) return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean eliminateOutsideBox(int[] line, int b, int bit) {
+        boolean changed = false;
+        for (int k=0;k<9;k++)
+            if (BOX[line[k]] != b) changed |= eliminate(line[k], bit);
+        return changed;
+    }
+
+    /** Dígito restrito a um bloco dentro da linha/coluna sai do resto do bloco. */
+    private boolean claiming() {
+        for (int u=0;u<18;u++) {
+            int[] line = UNITS[u];
+            for (int v=1;v<=9;v++) {
+                int bit = 1 << v, boxes = 0;
+                for (int k=0;k<9;k++)
+                    if ((cands[line[k]] & bit) != 0) boxes |= 1 << BOX[line[k]];
+                if (boxes == 0 || (boxes & (boxes - 1)) != 0) continue;
+                int[] box = UNITS[18 + Integer.numberOfTrailingZeros(boxes)];
+                boolean changed = false;
+                for (int k=0;k<9;k++) {
+                    int i = box[k];
+                    boolean inLine = u < 9 ? ROW[i] == u : COL[i] == u - 9;
+                    if (!inLine) changed |= eliminate(i, bit);
+                }
+                if (changed) return true;
+            }
+        }
+        return false;
+    }
+
+    // ---- subconjuntos ----
+
+    /** n células da unidade com só n candidatos entre elas: esses dígitos saem das outras. */
+    private boolean nakedSubset(int n) {
+        int[] cells = picks;
+        for (int u=0;u<27;u++) {
+            int[] unit = UNITS[u];
+            int count = 0;
+            for (int k=0;k<9;k++) {
+                int bits = Integer.bitCount(cands[unit[k]]);
+                if (bits >= 2 && bits <= n) cells[count++] = unit[k];
+            }
+            if (count < n) continue;
+            for (int a=0;a<count;a++) {
+                for (int b=a+1;b<count;b++) {
+                    int ab = cands[cells[a]] | cands[cells[b]];
+                    if (n == 2) {
+                        if (Integer.bitCount(ab) == 2 && clearUnitExcept(unit, ab, cells[a], cells[b], -1)) return true;
+                        continue;
+                    }
+                    if (Integer.bitCount(ab) > 3) continue;
+                    for (int c=b+1;c<count;c++) {
+                        int abc = ab | cands[cells[c]];
+                        if (Integer.bitCount(abc) == 3 && clearUnitExcept(unit, abc, cells[a], cells[b], cells[c]))
+                            return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean clearUnitExcept(int[] unit, int bits, int x, int y, int z) {
+        boolean changed = false;
+        for (int k=0;k<9;k++) {
+            int i = unit[k];
+            if (i != x && i != y && i != z) changed |= eliminate(i, bits);
+        }
+        return changed;
+    }
+
+    /** n dígitos que só cabem nas mesmas n células da unidade: essas células ficam só com eles. */
+    private boolean hiddenSubset(int n) {
+        int[] pos = masks;
+        int[] digits = picks;
+        for (int u=0;u<27;u++) {
+            int[] unit = UNITS[u];
+            int count = 0;
+            for (int v=1;v<=9;v++) {
+                int p = 0;
+                for (int k=0;k<9;k++) if ((cands[unit[k]] & (1 << v)) != 0) p |= 1 << k;
+                pos[v] = p;
+                int bits = Integer.bitCount(p);
+                if (bits >= 2 && bits <= n) digits[count++] = v;
+            }
+            if (count < n) continue;
+            for (int a=0;a<count;a++) {
+                for (int b=a+1;b<count;b++) {
+                    int pa = pos[digits[a]] | pos[digits[b]];
+                    int keep = (1 << digits[a]) | (1 << digits[b]);
+                    if (n == 2) {
+                        if (Integer.bitCount(pa) == 2 && restrict(unit, pa, keep)) return true;
+                        continue;
+                    }
+                    if (Integer.bitCount(pa) > 3) continue;
+                    for (int c=b+1;c<count;c++) {
+                        int pabc = pa | pos[digits[c]];
+                        if (Integer.bitCount(pabc) == 3 && restrict(unit, pabc, keep | (1 << digits[c])))
+                            return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean restrict(int[] unit, int positions, int keep) {
+        boolean changed = false;
+        for (int k=0;k<9;k++)
+            if ((positions & (1 << k)) != 0) changed |= eliminate(unit[k], ALL & ~keep);
+        return changed;
+    }
+
+    // ---- peixes ----
+
+    /** X-Wing (n=2) e Swordfish (n=3), por linhas e por colunas. */
+    private boolean fish(int n) {
+        int[] lines = picks;
+        int[] pos = masks;
+        for (int v=1;v<=9;v++) {
+            int bit = 1 << v;
+            for (int byCols=0; byCols<2; byCols++) {
+                int base = byCols * 9, count = 0;
+                for (int l=0;l<9;l++) {
+                    int[] line = UNITS[base + l];
+                    int p = 0;
+                    for (int k=0;k<9;k++) if ((cands[line[k]] & bit) != 0) p |= 1 << k;
+                    int bits = Integer.bitCount(p);
+                    if (bits >= 2 && bits <= n) { lines[count] = l; pos[count++] = p; }
+                }
+                for (int a=0;a<count;a++) {
+                    for (int b=a+1;b<count;b++) {
+                        int ab = pos[a] | pos[b];
+                        if (n == 2) {
+                            if (Integer.bitCount(ab) == 2
+                                    && clearCrossLines(9 - base, ab, bit, lines[a], lines[b], -1)) return true;
+                            continue;
+                        }
+                        if (Integer.bitCount(ab) > 3) continue;
+                        for (int c=b+1;c<count;c++) {
+                            int abc = ab | pos[c];
+                            if (Integer.bitCount(abc) == 3
+                                    && clearCrossLines(9 - base, abc, bit, lines[a], lines[b], lines[c])) return true;
+                        }
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Remove bit das linhas cruzadas (crossBase + índice em cover), fora das linhas da base. */
+    private boolean clearCrossLines(int crossBase, int cover, int bit, int x, int y, int z) {
+        boolean changed = false;
+        for (int m = cover; m != 0; m &= m - 1) {
+            int[] cross = UNITS[crossBase + Integer.numberOfTrailingZeros(m)];
+            for (int k=0;k<9;k++)
+                if (k != x && k != y && k != z) changed |= eliminate(cross[k], bit);
+        }
+        return changed;
+    }
+
+    // ---- cadeias ----
+
+    /** Pivô {x,y} com asas {x,z} e {y,z}: z sai das células que veem as duas asas. */
+    private boolean xyWing() {
+        for (int p=0;p<81;p++) {
+            int cp = cands[p];
+            if (Integer.bitCount(cp) != 2) continue;
+            int[] peers = PEERS[p];
+            for (int ia=0; ia<20; ia++) {
+                int a = peers[ia], ca = cands[a];
+                if (Integer.bitCount(ca) != 2 || Integer.bitCount(ca & cp) != 1) continue;
+                for (int ib=ia+1; ib<20; ib++) {
+                    int b = peers[ib], cb = cands[b];
+                    if (Integer.bitCount(cb) != 2 || Integer.bitCount(cb & cp) != 1) continue;
+                    if ((ca & cp) == (cb & cp)) continue;
+                    int z = ca & cb & ~cp;
+                    if (Integer.bitCount(z) != 1) continue;
+                    boolean changed = false;
+                    for (int i : PEERS[a])
+                        if (i != b && sees(i, b)) changed |= eliminate(i, z);
+                    if (changed) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Coloração simples: liga por pares conjugados as células de um dígito e
+     * alterna duas cores. Duas células da mesma cor na mesma unidade tornam essa
+     * cor falsa; uma célula que vê as duas cores não pode ter o dígito.
+     */
+    private boolean coloring() {
+        for (int v=1;v<=9;v++) {
+            int bit = 1 << v;
+            Arrays.fill(color, -1);
+            for (int start=0; start<81; start++) {
+                if ((cands[start] & bit) == 0 || color[start] >= 0) continue;
+                // BFS pelos pares conjugados; cores 2*comp e 2*comp+1 distinguem componentes
+                int c0 = start * 2;
+                int head = 0, tail = 0;
+                color[start] = c0;
+                queue[tail++] = start;
+                while (head < tail) {
+                    int i = queue[head++];
+                    tail = link(UNITS[ROW[i]], i, bit, tail);
+                    tail = link(UNITS[9 + COL[i]], i, bit, tail);
+                    tail = link(UNITS[18 + BOX[i]], i, bit, tail);
+                }
+                if (tail < 2) continue;
+                // mesma cor vista duas vezes: essa cor é falsa
+                for (int x=0; x<tail; x++) {
+                    for (int y=x+1; y<tail; y++) {
+                        int i = queue[x], j = queue[y];
+                        if (color[i] == color[j] && sees(i, j)) {
+                            int bad = color[i];
+                            for (int k=0;k<tail;k++)
+                                if (color[queue[k]] == bad) eliminate(queue[k], bit);
+                            return true;
+                        }
+                    }
+                }
+                // célula fora da cadeia que vê as duas cores
+                boolean changed = false;
+                for (int i=0;i<81;i++) {
+                    if ((cands[i] & bit) == 0 || (color[i] >> 1) == start) continue;
+                    boolean sees0 = false, sees1 = false;
+                    for (int k=0;k<tail && !(sees0 && sees1);k++) {
+                        int j = queue[k];
+                        if (!sees(i, j)) continue;
+                        if (color[j] == c0) sees0 = true; else sees1 = true;
+                    }
+                    if (sees0 && sees1) changed |= eliminate(i, bit);
+                }
+                if (changed) return true;
+            }
+        }
+        return false;
+    }
+
+    /** Colore e enfileira o conjugado de i na unidade; devolve o novo fim da fila. */
+    private int link(int[] unit, int i, int bit, int tail) {
+        int other = conjugate(unit, i, bit);
+        if (other >= 0 && color[other] < 0) {
+            color[other] = color[i] ^ 1;
+            queue[tail++] = other;
+        }
+        return tail;
+    }
+
+    /** A outra célula da unidade com o dígito, se forem exatamente duas; senão -1. */
+    private int conjugate(int[] unit, int i, int bit) {
+        int other = -1, count = 0;
+        for (int k=0;k<9;k++) {
+            int j = unit[k];
+            if ((cands[j] & bit) == 0) continue;
+            if (++count > 2) return -1;
+            if (j != i) other = j;
+        }
+        return count == 2 ? other : -1;
+    }
+
+    private static boolean sees(int i, int j) {
+        return ROW[i] == ROW[j] || COL[i] == COL[j] || BOX[i] == BOX[j];
+    }
+}
@@ -0,0 +1,66 @@
+package Sudoku;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Transformação que preserva a estrutura do Sudoku: troca de dígitos,
+ * permutação de linhas dentro das faixas e de colunas dentro das pilhas,
+ * permutação das faixas e das pilhas e transposição
+ * (9!·6^8·2 ≈ 1,2 trilhão de variantes). Unicidade da solução e o rating do
+ * Grader são os mesmos do puzzle original, e aplicar custa O(81).
+ */
+final class Isomorph {
+    private final int[] digits = new int[10]; // digits[v] = novo valor; digits[0] = 0
+    private final int[] rows = new int[9];    // linha de origem de cada linha
+    private final int[] cols = new int[9];    // coluna de origem de cada coluna
+    private final boolean transpose;
+
+    private Isomorph(RandomGenerator rnd) {
+        for (int v=1;v<=9;v++) digits[v] = v;
+        shuffle(digits, 1, 9, rnd);
+        lines(rows, rnd);
+        lines(cols, rnd);
+        transpose = rnd.nextBoolean();
+    }
+
+    /** Transformação sorteada de maneira uniforme. */
+    static Isomorph random(RandomGenerator rnd) {
+        return new Isomorph(rnd);
+    }
+
+    /** Puzzle e solução transformados juntos, com as pistas fixas mantidas. */
+    public GeneratedPuzzle apply(GeneratedPuzzle p) {
+        return new GeneratedPuzzle(apply(p.initial), apply(p.solution));
+    }
+
+    public Board apply(Board src) {
+        Board out = new Board();
+        for (int r=0;r<9;r++) {
+            for (int c=0;c<9;c++) {
+                int sr = transpose ? cols[c] : rows[r];
+                int sc = transpose ? rows[r] : cols[c];
+                out.set(r, c, digits[src.get(sr, sc)]);
+                if (src.isFixed(sr, sc)) out.setFixed(r, c, true);
+            }
+        }
+        return out;
+    }
+
+    /** Ordem das faixas (ou pilhas) e, dentro de cada uma, das suas três linhas. */
+    private static void lines(int[] map, RandomGenerator rnd) {
+        int[] bands = { 0, 1, 2 };
+        shuffle(bands, 0, 3, rnd);
+        for (int b=0;b<3;b++) {
+            for (int k=0;k<3;k++) map[b*3 + k] = bands[b]*3 + k;
+            shuffle(map, b*3, 3, rnd);
+        }
+    }
+
+    /** Fisher–Yates em a[from, from+n). */
+    private static void shuffle(int[] a, int from, int n, RandomGenerator rnd) {
+        for (int i=n-1; i>0; i--) {
+            int j = from + rnd.nextInt(i + 1);
+            int t = a[from + i]; a[from + i] = a[j]; a[j] = t;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package Sudoku;
+
+import java.util.Arrays;
+
+/**
+ * Histórico de jogadas para undo/redo, uma entrada int por célula alterada:
+ *
+ *   bits 0..6   célula (r*9+c)
+ *   bits 7..10  valor antigo
+ *   bits 11..14 valor novo
+ *   bits 15..17 origem (PLAY, ERASE, HINT, SOLVE, RESET)
+ *   bit  18     continua o passo anterior (solve/reset alteram várias células)
+ *
+ * As entradas ficam num int[] que dobra de tamanho quando enche, então o
+ * custo é de 4 bytes por célula alterada, sem limite de histórico.
+ */
+final class MoveJournal {
+    static final int PLAY = 0, ERASE = 1, HINT = 2, SOLVE = 3, RESET = 4;
+    private static final String[] NAMES = { "play", "erase", "hint", "solve", "reset" };
+    private static final int LINKED = 1 << 18;
+
+    private int[] entries = new int[64];
+    private int size;   // entradas gravadas (inclui as desfeitas, disponíveis para redo)
+    private int cursor; // entradas aplicadas
+
+    /**
+     * Grava uma alteração e descarta o que havia para refazer.
+     * linked indica que a entrada faz parte do mesmo passo que a anterior.
+     */
+    public void record(int r, int c, int oldValue, int newValue, int source, boolean linked) {
+        if (cursor == entries.length) entries = Arrays.copyOf(entries, entries.length * 2);
+        entries[cursor++] = (r*9 + c) | oldValue << 7 | newValue << 11 | source << 15 | (linked ? LINKED : 0);
+        size = cursor;
+    }
+
+    public boolean canUndo() { return cursor > 0; }
+    public boolean canRedo() { return cursor < size; }
+
+    /** Desfaz o último passo em b; devolve a primeira entrada do passo ou -1. */
+    public int undo(Board b) {
+        if (cursor == 0) return -1;
+        int e;
+        do {
+            e = entries[--cursor];
+            b.set(cell(e) / 9, cell(e) % 9, oldValue(e));
+        } while ((e & LINKED) != 0);
+        return e;
+    }
+
+    /** Refaz o próximo passo em b; devolve a primeira entrada do passo ou -1. */
+    public int redo(Board b) {
+        if (cursor == size) return -1;
+        int first = entries[cursor];
+        do {
+            int e = entries[cursor++];
+            b.set(cell(e) / 9, cell(e) % 9, newValue(e));
+        } while (cursor < size && (entries[cursor] & LINKED) != 0);
+        return first;
+    }
+
+    static int cell(int e) { return e & 0x7F; }
+    static int oldValue(int e) { return (e >>> 7) & 0xF; }
+    static int newValue(int e) { return (e >>> 11) & 0xF; }
+    static int source(int e) { return (e >>> 15) & 0x7; }
+
+    /** Texto curto do passo, por exemplo "play (3,7)" ou "solve". */
+    static String describe(int e) {
+        int s = source(e);
+        if (s == SOLVE || s == RESET) return NAMES[s];
+        return String.format("%s (%d,%d)", NAMES[s], cell(e) / 9 + 1, cell(e) % 9 + 1);
+    }
+}
@@ -0,0 +1,114 @@
+package Sudoku;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Conjunto de longs fora do heap: tabela de endereçamento aberto com sondagem
+ * linear em ByteBuffers diretos, 8 bytes por posição e 0 como posição livre
+ * (a chave 0 fica num flag à parte). Dobra quando passa de 2/3 de ocupação.
+ * Um ByteBuffer guarda no máximo 2 GB, então a tabela é dividida em segmentos
+ * de 2^26 posições (512 MB) e os índices são long.
+ * Com milhões de hashes canônicos o heap só vê este objeto, não as chaves.
+ */
+final class OffHeapLongSet {
+    private static final int SEGMENT_BITS = 26;
+    private static final int SEGMENT_SLOTS = 1 << SEGMENT_BITS;
+    private static final long MAX_CAPACITY = 1L << 34; // 128 GB
+
+    private LongBuffer[] segments;
+    private long mask;
+    private long size;
+    private boolean hasZero;
+
+    OffHeapLongSet(long expected) {
+        if (expected < 0) throw new IllegalArgumentException("Tamanho negativo: " + expected);
+        long capacity = 16;
+        while (capacity * 2 < expected * 3 && capacity < MAX_CAPACITY) capacity <<= 1;
+        if (capacity * 2 < expected * 3) throw new IllegalArgumentException("Conjunto grande demais: " + expected);
+        segments = allocate(capacity);
+        mask = capacity - 1;
+    }
+
+    /**
+     * Adiciona key; false se já estava no conjunto. Se a tabela precisa crescer
+     * e já está no tamanho máximo, lança IllegalStateException sem alterar o conjunto.
+     */
+    public boolean add(long key) {
+        if (key == 0) {
+            if (hasZero) return false;
+            hasZero = true;
+            size++;
+            return true;
+        }
+        for (long i = slot(key); ; i = (i + 1) & mask) {
+            long k = get(i);
+            if (k == key) return false;
+            if (k == 0) {
+                if ((size + 1) * 3 > (mask + 1) * 2) {
+                    grow();
+                    return add(key); // as posições mudaram com a nova máscara
+                }
+                put(i, key);
+                size++;
+                return true;
+            }
+        }
+    }
+
+    public boolean contains(long key) {
+        if (key == 0) return hasZero;
+        for (long i = slot(key); ; i = (i + 1) & mask) {
+            long k = get(i);
+            if (k == key) return true;
+            if (k == 0) return false;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    private long slot(long key) {
+        // mistura final do MurmurHash3: as chaves podem não ser uniformes nos bits baixos
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key & mask;
+    }
+
+    private long get(long i) {
+        return segments[(int) (i >>> SEGMENT_BITS)].get((int) i & (SEGMENT_SLOTS - 1));
+    }
+
+    private void put(long i, long key) {
+        segments[(int) (i >>> SEGMENT_BITS)].put((int) i & (SEGMENT_SLOTS - 1), key);
+    }
+
+    private static LongBuffer[] allocate(long capacity) {
+        int n = (int) Math.max(1, capacity >>> SEGMENT_BITS);
+        int slots = (int) Math.min(capacity, SEGMENT_SLOTS);
+        LongBuffer[] buffers = new LongBuffer[n];
+        for (int k=0;k<n;k++)
+            buffers[k] = ByteBuffer.allocateDirect(slots * 8).order(ByteOrder.nativeOrder()).asLongBuffer();
+        return buffers;
+    }
+
+    /** Dobra a tabela; se não houver memória ou já estiver no máximo, a tabela antiga fica intacta. */
+    private void grow() {
+        if (mask + 1 >= MAX_CAPACITY) throw new IllegalStateException("Conjunto cheio");
+        LongBuffer[] old = segments;
+        segments = allocate((mask + 1) * 2);
+        mask = mask * 2 + 1;
+        for (LongBuffer segment : old) {
+            for (int j=0; j<segment.capacity(); j++) {
+                long key = segment.get(j);
+                if (key == 0) continue;
+                long i = slot(key);
+                while (get(i) != 0) i = (i + 1) & mask;
+                put(i, key);
+            }
+        }
+    }
+}
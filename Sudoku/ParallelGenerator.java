@@ -0,0 +1,105 @@
+package Sudoku;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Gera lotes de puzzles em paralelo num ForkJoinPool próprio.
+ * Generator (com seu SplittableRandom e buffers) e os solvers não são
+ * thread-safe, então cada thread do pool usa o seu próprio Generator.
+ */
+class ParallelGenerator implements AutoCloseable {
+    private static final int CHUNK = 8; // puzzles por tarefa folha
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Generator> generators;
+
+    ParallelGenerator(SolverBackend backend) {
+        this(Runtime.getRuntime().availableProcessors(), backend);
+    }
+
+    ParallelGenerator(int parallelism, SolverBackend backend) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.generators = ThreadLocal.withInitial(() -> new Generator(backend.create()));
+    }
+
+    /** Gera count puzzles da dificuldade pedida usando todas as threads do pool. */
+    public List<GeneratedPuzzle> generate(Difficulty diff, int count) {
+        return generate(diff, Symmetry.NONE, count);
+    }
+
+    /** Idem, com as pistas no padrão de simetria pedido. */
+    public List<GeneratedPuzzle> generate(Difficulty diff, Symmetry sym, int count) {
+        return run((gen, i) -> gen.generate(diff, sym), count);
+    }
+
+    /**
+     * Lote reproduzível: o i-ésimo puzzle é generate(diff, seeds(seed, count)[i]),
+     * seja qual for o número de threads ou a ordem em que rodam.
+     */
+    public List<GeneratedPuzzle> generate(Difficulty diff, long seed, int count) {
+        long[] seeds = seeds(seed, count);
+        return run((gen, i) -> gen.generate(diff, seeds[i]), count);
+    }
+
+    /** Sementes de cada puzzle de um lote; guardá-las basta para refazer os puzzles. */
+    static long[] seeds(long seed, int count) {
+        if (count < 0) throw new IllegalArgumentException("count negativo: " + count);
+        SplittableRandom root = new SplittableRandom(seed);
+        long[] seeds = new long[count];
+        for (int i=0;i<count;i++) seeds[i] = root.nextLong();
+        return seeds;
+    }
+
+    /** Gera count puzzles mínimos com até maxClues pistas (ver Generator.generateMinimal). */
+    public List<GeneratedPuzzle> generateMinimal(int maxClues, int count) {
+        if (maxClues < Generator.MIN_CLUES)
+            throw new IllegalArgumentException("Mínimo de " + Generator.MIN_CLUES + " pistas: " + maxClues);
+        return run((gen, i) -> gen.generateMinimal(maxClues), count);
+    }
+
+    /** Como gerar o i-ésimo puzzle do lote com o Generator da thread. */
+    private interface Task {
+        GeneratedPuzzle make(Generator gen, int i);
+    }
+
+    private List<GeneratedPuzzle> run(Task make, int count) {
+        if (count < 0) throw new IllegalArgumentException("count negativo: " + count);
+        GeneratedPuzzle[] out = new GeneratedPuzzle[count];
+        pool.invoke(new Batch(make, out, 0, count));
+        return Arrays.asList(out);
+    }
+
+    @Override
+    public void close() {
+        pool.shutdown();
+    }
+
+    /** Divide o intervalo [from, to) ao meio até CHUNK puzzles por tarefa. */
+    private final class Batch extends RecursiveAction {
+        private final Task make;
+        private final GeneratedPuzzle[] out;
+        private final int from, to;
+
+        Batch(Task make, GeneratedPuzzle[] out, int from, int to) {
+            this.make = make;
+            this.out = out;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= CHUNK) {
+                Generator gen = generators.get();
+                for (int i=from;i<to;i++) out[i] = make.make(gen, i);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Batch(make, out, from, mid), new Batch(make, out, mid, to));
+        }
+    }
+}
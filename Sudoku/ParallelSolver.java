@@ -0,0 +1,87 @@
+package Sudoku;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contagem de soluções em paralelo: os primeiros níveis da árvore de busca
+ * (ramificando na célula com menos candidatos) viram tarefas de um ForkJoinPool
+ * e cada folha roda um Solver próprio da thread. Todas as tarefas somam num
+ * contador compartilhado e param assim que ele chega ao limite.
+ * Ao contrário dos outros solvers, pode ser usado por várias threads.
+ */
+class ParallelSolver implements SudokuSolver {
+    private static final int SPLIT_DEPTH = 2; // níveis de ramificação que viram tarefas
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Solver> solvers = ThreadLocal.withInitial(Solver::new);
+
+    ParallelSolver() { this(ForkJoinPool.commonPool()); }
+
+    ParallelSolver(ForkJoinPool pool) { this.pool = pool; }
+
+    @Override
+    public boolean solve(Board b) {
+        return solvers.get().solve(b);
+    }
+
+    @Override
+    public int countSolutions(Board b, int limit) {
+        if (limit <= 0 || b.hasVisibleConflicts()) return 0;
+        AtomicInteger found = new AtomicInteger();
+        pool.invoke(new Branch(b.clone(), 0, limit, found));
+        return Math.min(found.get(), limit);
+    }
+
+    private final class Branch extends RecursiveAction {
+        private final Board board;
+        private final int depth;
+        private final int limit;
+        private final AtomicInteger found;
+
+        Branch(Board board, int depth, int limit, AtomicInteger found) {
+            this.board = board;
+            this.depth = depth;
+            this.limit = limit;
+            this.found = found;
+        }
+
+        @Override
+        protected void compute() {
+            if (found.get() >= limit) return;
+            if (depth == SPLIT_DEPTH) {
+                solvers.get().countSolutions(board, limit, found);
+                return;
+            }
+
+            // célula vazia com menos candidatos; células forçadas não gastam um nível
+            int best = -1, bestMask = 0, bestCount = 10;
+            for (int i=0;i<81;i++) {
+                int r = i / 9, c = i % 9;
+                if (board.get(r,c) != 0) continue;
+                int m = board.candidates(r,c);
+                int n = Integer.bitCount(m);
+                if (n < bestCount) { best = i; bestMask = m; bestCount = n; }
+                if (n <= 1) break;
+            }
+            if (best < 0) { found.incrementAndGet(); return; }
+            if (bestCount == 0) return;
+            int r = best / 9, c = best % 9;
+            if (bestCount == 1) {
+                board.set(r,c, Integer.numberOfTrailingZeros(bestMask));
+                compute();
+                return;
+            }
+
+            Branch[] tasks = new Branch[bestCount];
+            int k = 0;
+            for (int m = bestMask; m != 0; m &= m - 1) {
+                Board child = board.clone();
+                child.set(r,c, Integer.numberOfTrailingZeros(m));
+                tasks[k++] = new Branch(child, depth + 1, limit, found);
+            }
+            invokeAll(tasks);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package Sudoku;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Banco de puzzles em arquivo binário, lido via memory-map.
+ *
+ * Formato (big-endian):
+ *   0   "SDKB"                      magic
+ *   4   short versão (1)
+ *   6   short tamanho do registro (41)
+ *   8   byte  número de dificuldades, byte número de técnicas (16), 2 bytes livres
+ *   12  long[dificuldades][técnicas] quantidade de puzzles em cada grupo
+ *   ... registros, ordenados por dificuldade e depois por técnica
+ *
+ * Cada registro tem 41 bytes: um nibble por célula (0 = vazia), duas células
+ * por byte com a célula par no nibble baixo; o nibble que sobra no último byte
+ * guarda a técnica mais difícil exigida, como ordinal de Grader.Technique
+ * (0 = HIDDEN_SINGLE ... 12 = GUESS; 13..15 livres). Não é o rating do Grader:
+ * o custo correspondente é Grader.Technique.cost. A solução não é gravada:
+ * get() resolve o puzzle na hora da leitura.
+ */
+class PuzzleBank {
+    static final int RECORD_SIZE = 41;
+    static final int TECHNIQUES = 16; // posições no formato, além das técnicas existentes
+    private static final int MAGIC = 0x53444B42; // "SDKB"
+    private static final short VERSION = 1;
+    private static final int DIFFICULTIES = Difficulty.values().length;
+    private static final int HEADER_SIZE = 12 + DIFFICULTIES * TECHNIQUES * 8;
+
+    private final MappedByteBuffer data;
+    // índice do primeiro registro de cada (dificuldade, técnica); a última posição de cada linha é o fim
+    private final long[][] start = new long[DIFFICULTIES][TECHNIQUES + 1];
+    private final ThreadLocal<Solver> solvers = ThreadLocal.withInitial(Solver::new);
+
+    private PuzzleBank(MappedByteBuffer data) throws IOException {
+        this.data = data;
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC)
+            throw new IOException("Não é um banco de puzzles");
+        if (data.getShort(4) != VERSION || data.getShort(6) != RECORD_SIZE
+                || data.get(8) != DIFFICULTIES || data.get(9) != TECHNIQUES)
+            throw new IOException("Versão de banco de puzzles não suportada");
+        long records = (data.capacity() - HEADER_SIZE) / RECORD_SIZE; // cabem no arquivo
+        long next = 0;
+        int pos = 12;
+        for (int d=0; d<DIFFICULTIES; d++) {
+            for (int r=0; r<TECHNIQUES; r++) {
+                long n = data.getLong(pos);
+                if (n < 0) throw new IOException("Contagem negativa no cabeçalho: " + n);
+                // comparar com o que resta evita overflow na soma de contagens enormes
+                if (n > records - next) throw new IOException("Banco de puzzles truncado");
+                start[d][r] = next;
+                next += n;
+                pos += 8;
+            }
+            start[d][TECHNIQUES] = next;
+        }
+    }
+
+    /** Mapeia o arquivo; só o cabeçalho é lido agora, os registros sob demanda. */
+    static PuzzleBank open(Path path) throws IOException {
+        try (FileChannel ch = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (ch.size() > Integer.MAX_VALUE)
+                throw new IOException("Banco de puzzles maior que 2 GB");
+            return new PuzzleBank(ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    public long count(Difficulty diff) {
+        long[] s = start[diff.ordinal()];
+        return s[TECHNIQUES] - s[0];
+    }
+
+    public long count(Difficulty diff, Grader.Technique technique) {
+        long[] s = start[diff.ordinal()];
+        return s[technique.ordinal() + 1] - s[technique.ordinal()];
+    }
+
+    /** k-ésimo puzzle da dificuldade (em ordem de técnica), sem resolver. */
+    public Board puzzle(Difficulty diff, long k) {
+        return read(index(diff, 0, TECHNIQUES, k));
+    }
+
+    public Board puzzle(Difficulty diff, Grader.Technique technique, long k) {
+        return read(index(diff, technique.ordinal(), technique.ordinal() + 1, k));
+    }
+
+    /** Técnica mais difícil exigida pelo k-ésimo puzzle da dificuldade. */
+    public Grader.Technique technique(Difficulty diff, long k) {
+        long i = index(diff, 0, TECHNIQUES, k);
+        int t = (data.get((int) (HEADER_SIZE + i * RECORD_SIZE) + 40) >>> 4) & 0xF;
+        Grader.Technique[] all = Grader.Technique.values();
+        if (t >= all.length) throw new IllegalStateException("Técnica inválida no registro: " + t);
+        return all[t];
+    }
+
+    /** k-ésimo puzzle da dificuldade com a solução calculada na leitura. */
+    public GeneratedPuzzle get(Difficulty diff, long k) {
+        return withSolution(puzzle(diff, k));
+    }
+
+    public GeneratedPuzzle get(Difficulty diff, Grader.Technique technique, long k) {
+        return withSolution(puzzle(diff, technique, k));
+    }
+
+    private GeneratedPuzzle withSolution(Board initial) {
+        Board solution = initial.clone();
+        if (!solvers.get().solve(solution))
+            throw new IllegalStateException("Puzzle do banco sem solução");
+        return new GeneratedPuzzle(initial, solution);
+    }
+
+    /**
+     * Percorre o banco uma vez e chama report(dificuldade, k) para cada puzzle
+     * isomorfo (ou igual) a um anterior, comparando hashes canônicos de 64 bits
+     * guardados fora do heap. Devolve quantos duplicados encontrou. Colisões de
+     * hash entre puzzles diferentes são possíveis, mas improváveis (~n²/2^65).
+     */
+    public long duplicates(ObjLongConsumer<Difficulty> report) {
+        long total = 0;
+        for (Difficulty d : Difficulty.values()) total += count(d);
+        OffHeapLongSet seen = new OffHeapLongSet(total);
+        Canonical canonical = new Canonical();
+        byte[] form = new byte[81];
+        long dups = 0;
+        for (Difficulty d : Difficulty.values()) {
+            for (long k=0, n=count(d); k<n; k++) {
+                canonical.canonicalize(puzzle(d, k), form);
+                if (!seen.add(Canonical.hash(form))) {
+                    dups++;
+                    report.accept(d, k);
+                }
+            }
+        }
+        return dups;
+    }
+
+    private long index(Difficulty diff, int from, int to, long k) {
+        long[] s = start[diff.ordinal()];
+        if (k < 0 || k >= s[to] - s[from])
+            throw new IndexOutOfBoundsException("Puzzle " + k + " fora do banco (" + diff + ")");
+        return s[from] + k;
+    }
+
+    private Board read(long index) {
+        int off = (int) (HEADER_SIZE + index * RECORD_SIZE);
+        Board b = new Board();
+        for (int i=0;i<81;i++) {
+            int v = (data.get(off + (i >> 1)) >>> ((i & 1) << 2)) & 0xF;
+            if (v != 0) {
+                b.set(i/9, i%9, v);
+                b.setFixed(i/9, i%9, true);
+            }
+        }
+        return b;
+    }
+
+    /** Acumula puzzles em memória (41 bytes cada) e grava o banco de uma vez. */
+    static class Writer {
+        private final Map<Difficulty, ByteArrayOutputStream[]> buckets = new EnumMap<>(Difficulty.class);
+        private final byte[] record = new byte[RECORD_SIZE];
+        private final Grader grader = new Grader();
+
+        Writer() {
+            for (Difficulty d : Difficulty.values()) {
+                ByteArrayOutputStream[] b = new ByteArrayOutputStream[TECHNIQUES];
+                for (int r=0; r<TECHNIQUES; r++) b[r] = new ByteArrayOutputStream();
+                buckets.put(d, b);
+            }
+        }
+
+        /** Avalia o puzzle com o Grader e o guarda no grupo da técnica mais difícil exigida. */
+        public void add(Difficulty diff, Board puzzle) {
+            add(diff, grader.grade(puzzle).hardest, puzzle);
+        }
+
+        public void add(Difficulty diff, Grader.Technique technique, Board puzzle) {
+            int t = technique.ordinal();
+            Arrays.fill(record, (byte) 0);
+            for (int i=0;i<81;i++)
+                record[i >> 1] |= (byte) (puzzle.get(i/9, i%9) << ((i & 1) << 2));
+            record[40] |= (byte) (t << 4);
+            buckets.get(diff)[t].write(record, 0, RECORD_SIZE);
+        }
+
+        public void write(Path path) throws IOException {
+            try (OutputStream os = Files.newOutputStream(path);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os, 1 << 16))) {
+                out.write("SDKB".getBytes(StandardCharsets.US_ASCII));
+                out.writeShort(VERSION);
+                out.writeShort(RECORD_SIZE);
+                out.writeByte(DIFFICULTIES);
+                out.writeByte(TECHNIQUES);
+                out.writeShort(0);
+                for (Difficulty d : Difficulty.values())
+                    for (ByteArrayOutputStream b : buckets.get(d))
+                        out.writeLong(b.size() / RECORD_SIZE);
+                for (Difficulty d : Difficulty.values())
+                    for (ByteArrayOutputStream b : buckets.get(d))
+                        b.writeTo(out);
+            }
+        }
+    }
+}
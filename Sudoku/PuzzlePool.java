@@ -0,0 +1,110 @@
+package Sudoku;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Estoque de puzzles pré-gerados por dificuldade.
+ *
+ * Quando uma fila fica abaixo de lowWatermark, threads em segundo plano a
+ * completam até highWatermark. Com o estoque em dia, take() é só um poll;
+ * se a fila estiver vazia, take() devolve uma variante isomorfa (Isomorph)
+ * do último puzzle gerado para a dificuldade (guardado como cópia, então
+ * alterar um puzzle entregue não afeta os derivados), e só gera na thread de
+ * quem chamou se ainda não houver nenhum.
+ */
+class PuzzlePool implements AutoCloseable {
+    private final int lowWatermark;
+    private final int highWatermark;
+    private final Map<Difficulty, BlockingQueue<GeneratedPuzzle>> queues = new EnumMap<>(Difficulty.class);
+    private final Map<Difficulty, AtomicBoolean> refilling = new EnumMap<>(Difficulty.class);
+    private final Map<Difficulty, AtomicReference<GeneratedPuzzle>> lastGenerated = new EnumMap<>(Difficulty.class);
+    private final ExecutorService refillers;
+    private final ThreadLocal<Generator> generators;
+    private volatile boolean closed;
+
+    /**
+     * lowWatermark deve ser ao menos 1: a reposição começa quando a fila tem
+     * menos puzzles que ele, então com 0 ela nunca recomeçaria.
+     */
+    PuzzlePool(int lowWatermark, int highWatermark, int threads, SolverBackend backend) {
+        if (lowWatermark < 1 || highWatermark < lowWatermark)
+            throw new IllegalArgumentException("Watermarks inválidos: " + lowWatermark + "/" + highWatermark);
+        this.lowWatermark = lowWatermark;
+        this.highWatermark = highWatermark;
+        for (Difficulty d : Difficulty.values()) {
+            queues.put(d, new LinkedBlockingQueue<>(highWatermark));
+            refilling.put(d, new AtomicBoolean());
+            lastGenerated.put(d, new AtomicReference<>());
+        }
+        AtomicInteger ids = new AtomicInteger();
+        this.refillers = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "puzzle-pool-" + ids.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.generators = ThreadLocal.withInitial(() -> new Generator(backend.create()));
+    }
+
+    /** Começa a encher todas as filas até highWatermark. */
+    public void start() {
+        for (Difficulty d : Difficulty.values()) refill(d);
+    }
+
+    /** Retira um puzzle do estoque; com o estoque vazio, deriva um do último gerado. */
+    public GeneratedPuzzle take(Difficulty diff) {
+        BlockingQueue<GeneratedPuzzle> queue = queues.get(diff);
+        GeneratedPuzzle gp = queue.poll();
+        if (queue.size() < lowWatermark) refill(diff);
+        if (gp != null) return gp;
+        GeneratedPuzzle source = lastGenerated.get(diff).get();
+        if (source != null) return Isomorph.random(ThreadLocalRandom.current()).apply(source);
+        gp = generators.get().generateRated(diff);
+        remember(diff, gp);
+        return gp;
+    }
+
+    /** Guarda uma cópia de gp como origem das variantes isomorfas de diff. */
+    private void remember(Difficulty diff, GeneratedPuzzle gp) {
+        lastGenerated.get(diff).set(new GeneratedPuzzle(gp.initial.clone(), gp.solution.clone()));
+    }
+
+    /** Quantidade de puzzles prontos para a dificuldade. */
+    public int available(Difficulty diff) {
+        return queues.get(diff).size();
+    }
+
+    private void refill(Difficulty diff) {
+        AtomicBoolean running = refilling.get(diff);
+        if (closed || !running.compareAndSet(false, true)) return;
+        refillers.execute(() -> {
+            BlockingQueue<GeneratedPuzzle> queue = queues.get(diff);
+            try {
+                Generator gen = generators.get();
+                while (!closed && queue.size() < highWatermark) {
+                    GeneratedPuzzle gp = gen.generateRated(diff);
+                    remember(diff, gp);
+                    queue.offer(gp);
+                }
+            } finally {
+                running.set(false);
+            }
+            // um take pode ter esvaziado a fila enquanto a flag ainda estava ligada
+            if (queue.size() < lowWatermark) refill(diff);
+        });
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        refillers.shutdownNow();
+    }
+}
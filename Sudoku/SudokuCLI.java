@@ -1,4 +1,10 @@
+package Sudoku;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntUnaryOperator;
 
 /**
  * SudokuCLI.java
@@ -11,13 +17,47 @@ import java.util.*;
  *  - check        -> verifica se há erros visíveis
  *  - solve        -> resolve o tabuleiro inteiro
  *  - reset        -> volta ao estado inicial do puzzle
+ *  - undo / redo  -> desfaz / refaz a última alteração
  *  - print        -> reimprime o tabuleiro
  *  - help         -> mostra ajuda
  *  - quit         -> sai do jogo
+ *
+ * Opções: --solver=mrv|dlx, --batch[=arquivo], --ansi (redesenha só as células alteradas)
  */
 public class SudokuCLI {
 
     public static void main(String[] args) {
+        SolverBackend backend = SolverBackend.MRV;
+        String batch = null;
+        boolean ansi = false;
+        for (String arg : args) {
+            if (arg.equals("--ansi")) ansi = true;
+            else if (arg.equals("--batch")) batch = "-";
+            else if (arg.startsWith("--batch=")) batch = arg.substring(8);
+            else if (arg.startsWith("--solver=")) {
+                try {
+                    backend = SolverBackend.valueOf(arg.substring(9).toUpperCase(Locale.ROOT));
+                } catch (IllegalArgumentException e) {
+                    System.out.println("Solver desconhecido: " + arg.substring(9) + " (use mrv ou dlx)");
+                    return;
+                }
+            }
+        }
+
+        if (batch != null) {
+            try {
+                new BatchSolver(backend).run(batch, System.out);
+            } catch (IOException | InterruptedException e) {
+                System.err.println("Erro no modo batch: " + e.getMessage());
+                System.exit(1);
+            }
+            return;
+        }
+
+        // começa a gerar puzzles de todas as dificuldades enquanto o jogador escolhe
+        PuzzlePool pool = new PuzzlePool(1, 2, 1, backend);
+        pool.start();
+
         Scanner sc = new Scanner(System.in);
         System.out.println("==== Sudoku (Terminal) ====");
         System.out.println("Escolha a dificuldade: [1] Fácil  [2] Médio  [3] Difícil");
@@ -29,8 +69,10 @@ public class SudokuCLI {
             default -> Difficulty.HARD;
         };
 
-        SudokuGame game = new SudokuGame(diff);
+        SudokuGame game = new SudokuGame(diff, pool.take(diff), backend);
+        if (ansi) game.setView(new AnsiBoardView(System.out));
         game.loop(sc);
+        pool.close();
     }
 
     // Lê uma opção inteira entre min..max (com fallback simples)
@@ -47,203 +89,1021 @@ public class SudokuCLI {
     }
 }
 
-/** Nível de dificuldade controla a quantidade de remoções. */
+/**
+ * Nível de dificuldade.
+ * removals: quantas pistas o gerador tenta tirar.
+ * minRating..maxRating: faixa do Grader aceita por Generator.generateRated
+ * (fácil = só singles, médio = interseções, pares e X-Wing, difícil = trios,
+ * Swordfish, XY-Wing e cadeias).
+ */
 enum Difficulty {
-    EASY(38), MEDIUM(46), HARD(54);
+    EASY(38, 0, 23), MEDIUM(46, 26, 34), HARD(54, 36, 45);
     final int removals;
-    Difficulty(int removals) { this.removals = removals; }
+    final int minRating, maxRating;
+    Difficulty(int removals, int minRating, int maxRating) {
+        this.removals = removals;
+        this.minRating = minRating;
+        this.maxRating = maxRating;
+    }
 }
 
-/** Representa o tabuleiro de Sudoku 9x9. */
+/**
+ * Simetria do padrão de pistas. As células são agrupadas em órbitas (a célula
+ * e suas imagens pela simetria) e o gerador tira ou mantém cada órbita inteira.
+ */
+enum Symmetry {
+    NONE(i -> i),
+    ROTATIONAL(i -> 80 - i),                    // 180°: (r,c) -> (8-r,8-c)
+    QUARTER_TURN(i -> (i % 9) * 9 + 8 - i / 9), // 90°: (r,c) -> (c,8-r)
+    DIAGONAL(i -> (i % 9) * 9 + i / 9),         // (r,c) -> (c,r)
+    MIRROR(i -> (i / 9) * 9 + 8 - i % 9);       // (r,c) -> (r,8-c)
+
+    /** Órbitas de células (r*9+c); cada célula está em exatamente uma. */
+    final int[][] orbits;
+
+    Symmetry(IntUnaryOperator map) {
+        boolean[] seen = new boolean[81];
+        int[] orbit = new int[4];
+        List<int[]> list = new ArrayList<>();
+        for (int i=0;i<81;i++) {
+            if (seen[i]) continue;
+            int n = 0;
+            for (int j = i; !seen[j]; j = map.applyAsInt(j)) {
+                seen[j] = true;
+                orbit[n++] = j;
+            }
+            list.add(Arrays.copyOf(orbit, n));
+        }
+        this.orbits = list.toArray(new int[0][]);
+    }
+}
+
+/**
+ * Representa o tabuleiro de Sudoku 9x9.
+ * Células em byte[81] (índice r*9+c) e pistas fixas como máscara de 81 bits
+ * em dois longs; clone copia só os dois arrays pequenos.
+ */
 class Board implements Cloneable {
-    private final int[][] cells = new int[9][9];
-    private final boolean[][] fixed = new boolean[9][9]; // pistas iniciais
+    private static final int ALL = 0x3FE; // bits 1..9
 
-    public Board() {}
+    private static final int[][] UNIT_CELLS = Units.CELLS;
+    private static final int[] BOX = Units.BOX;
 
-    public int get(int r, int c) { return cells[r][c]; }
-    public void set(int r, int c, int v) { cells[r][c] = v; }
-    public boolean isFixed(int r, int c) { return fixed[r][c]; }
-    public void setFixed(int r, int c, boolean f) { fixed[r][c] = f; }
+    private final byte[] cells;
+    // máscaras de ocupação por unidade: bit v ligado se o dígito v aparece nela
+    private final short[] units;
+    private long fixedLo, fixedHi; // pistas iniciais: células 0..63 e 64..80
+    // repetições visíveis: soma, por unidade e dígito, das ocorrências além da primeira
+    private int conflicts;
+    private int filled; // células não vazias
 
-    public boolean isComplete() {
-        for (int r=0;r<9;r++)
-            for (int c=0;c<9;c++)
-                if (cells[r][c] == 0) return false;
-        return true;
+    public Board() {
+        cells = new byte[81];
+        units = new short[27];
     }
 
+    private Board(Board o) {
+        cells = o.cells.clone();
+        units = o.units.clone();
+        fixedLo = o.fixedLo;
+        fixedHi = o.fixedHi;
+        conflicts = o.conflicts;
+        filled = o.filled;
+    }
+
+    /**
+     * Lê um tabuleiro no formato de 81 caracteres por linha, em ordem de linhas:
+     * '1'..'9' são valores e '.' ou '0' são células vazias.
+     */
+    public static Board parse(CharSequence s) {
+        if (s.length() != 81)
+            throw new IllegalArgumentException("Esperados 81 caracteres, recebidos " + s.length());
+        Board b = new Board();
+        b.load(s, 0);
+        return b;
+    }
+
+    /**
+     * Sobrescreve todas as células com os 81 caracteres de s a partir de offset
+     * (mesmo formato de parse), reaproveitando este tabuleiro.
+     */
+    public void load(CharSequence s, int offset) {
+        for (int i=0;i<81;i++) {
+            char ch = s.charAt(offset + i);
+            if (ch >= '1' && ch <= '9') set(i/9, i%9, ch - '0');
+            else if (ch == '.' || ch == '0') set(i/9, i%9, 0);
+            else throw new IllegalArgumentException("Caractere inválido na posição " + (i+1) + ": " + ch);
+        }
+    }
+
+    public int get(int r, int c) { return cells[index(r,c)]; }
+
+    public void set(int r, int c, int v) {
+        int i = index(r,c);
+        int old = cells[i];
+        if (old == v) return;
+        if (v < 0 || v > 9) throw new IllegalArgumentException("Valor fora de 0..9: " + v);
+        int b = 18 + BOX[i];
+        if (old != 0) {
+            filled--;
+            cells[i] = 0;
+            remove(r, old);
+            remove(9+c, old);
+            remove(b, old);
+        }
+        cells[i] = (byte) v;
+        if (v != 0) {
+            filled++;
+            add(r, v);
+            add(9+c, v);
+            add(b, v);
+        }
+    }
+
+    private void add(int u, int v) {
+        int bit = 1 << v;
+        if ((units[u] & bit) != 0) conflicts++;
+        else units[u] |= bit;
+    }
+
+    private void remove(int u, int v) {
+        // sem conflitos o dígito era único na unidade; com conflitos confere as outras células
+        if (conflicts > 0 && occurrences(u, v) > 0) conflicts--;
+        else units[u] &= ~(1 << v);
+    }
+
+    private int occurrences(int u, int v) {
+        int[] unit = UNIT_CELLS[u];
+        int n = 0;
+        for (int k=0;k<9;k++) if (cells[unit[k]] == v) n++;
+        return n;
+    }
+
+    public boolean isFixed(int r, int c) {
+        int i = index(r,c);
+        return i < 64 ? (fixedLo & (1L << i)) != 0 : (fixedHi & (1L << (i - 64))) != 0;
+    }
+
+    public void setFixed(int r, int c, boolean f) {
+        int i = index(r,c);
+        if (i < 64) fixedLo = f ? fixedLo | (1L << i) : fixedLo & ~(1L << i);
+        else fixedHi = f ? fixedHi | (1L << (i - 64)) : fixedHi & ~(1L << (i - 64));
+    }
+
+    public boolean isComplete() { return filled == 81; }
+
+    /** Quantidade de células preenchidas (pistas incluídas). */
+    public int filledCount() { return filled; }
+
     public boolean isValidMove(int r, int c, int v) {
         if (v < 1 || v > 9) return false;
-        // linha
-        for (int cc=0; cc<9; cc++) if (cc!=c && cells[r][cc]==v) return false;
-        // coluna
-        for (int rr=0; rr<9; rr++) if (rr!=r && cells[rr][c]==v) return false;
-        // bloco
-        int br = (r/3)*3, bc = (c/3)*3;
-        for (int rr=br; rr<br+3; rr++)
-            for (int cc=bc; cc<bc+3; cc++)
-                if (!(rr==r && cc==c) && cells[rr][cc]==v) return false;
-        return true;
+        int i = index(r,c);
+        if (cells[i] != v) return ((units[r] | units[9+c] | units[18+BOX[i]]) & (1 << v)) == 0;
+        // a própria célula já tem v: válido se ela for a única ocorrência nas três unidades
+        if (conflicts == 0) return true;
+        return occurrences(r, v) == 1 && occurrences(9+c, v) == 1 && occurrences(18+BOX[i], v) == 1;
     }
 
+    /**
+     * Dígitos permitidos em (r,c) como máscara de bits (bit v = dígito v).
+     * Considera todos os valores da linha/coluna/bloco, então use em células vazias.
+     */
+    public int candidates(int r, int c) {
+        return ~(units[r] | units[9+c] | units[18+BOX[index(r,c)]]) & ALL;
+    }
+
+    private static int index(int r, int c) {
+        if (r < 0 || r >= 9 || c < 0 || c >= 9) throw new IndexOutOfBoundsException("(" + r + "," + c + ")");
+        return r*9 + c;
+    }
+
+    /** Imprime o tabuleiro em stdout com uma única escrita. */
     public void print() {
-        System.out.println();
-        System.out.println("    1 2 3   4 5 6   7 8 9");
-        System.out.println("  +-------+-------+-------+");
+        AsciiBuffer buf = RENDER_BUFFER.get();
+        buf.clear();
+        try {
+            render(buf);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // AsciiBuffer não lança
+        }
+        System.out.write(buf.bytes, 0, buf.length);
+        System.out.flush();
+    }
+
+    /** Escreve o tabuleiro em out, caractere a caractere, sem montar Strings intermediárias. */
+    public void render(Appendable out) throws IOException {
+        out.append(NL);
+        renderFrame(out, NL, this, DIGIT);
+        out.append(NL);
+    }
+
+    /** Escreve a célula (r,c) de b no quadro; usado por render e pela visualização ANSI. */
+    interface CellWriter {
+        void write(Appendable out, Board b, int r, int c) throws IOException;
+    }
+
+    /** Linhas escritas por renderFrame: cabeçalho, 4 bordas e 9 linhas de células. */
+    static final int FRAME_LINES = 14;
+
+    /** Quadro do tabuleiro (cabeçalho, bordas e linhas), com eol no fim de cada linha. */
+    static void renderFrame(Appendable out, CharSequence eol, Board b, CellWriter cell) throws IOException {
+        out.append(HEADER).append(eol);
+        out.append(BORDER).append(eol);
         for (int r=0; r<9; r++) {
-            System.out.print((r+1) + " | ");
+            out.append((char) ('1' + r)).append(" | ");
             for (int c=0; c<9; c++) {
-                int v = cells[r][c];
-                String s = (v==0) ? "." : String.valueOf(v);
-                System.out.print(s);
-                System.out.print(((c%3)==2) ? " | " : " ");
+                cell.write(out, b, r, c);
+                out.append(((c%3)==2) ? " | " : " ");
             }
-            System.out.println();
-            if ((r%3)==2) System.out.println("  +-------+-------+-------+");
+            out.append(eol);
+            if ((r%3)==2) out.append(BORDER).append(eol);
+        }
+    }
+
+    /** Linha (0 = cabeçalho) da célula da linha r no quadro de renderFrame. */
+    static int frameLine(int r) { return 2 + r + r/3; }
+
+    /** Coluna (0 = primeiro caractere) da célula da coluna c no quadro de renderFrame. */
+    static int frameColumn(int c) { return 4 + 2*c + 2*(c/3); }
+
+    private static final String NL = System.lineSeparator();
+    private static final String HEADER = "    1 2 3   4 5 6   7 8 9";
+    private static final String BORDER = "  +-------+-------+-------+";
+    private static final CellWriter DIGIT = (out, b, r, c) -> {
+        int v = b.cells[r*9 + c];
+        out.append(v == 0 ? '.' : (char) ('0' + v));
+    };
+    private static final ThreadLocal<AsciiBuffer> RENDER_BUFFER = ThreadLocal.withInitial(AsciiBuffer::new);
+
+    /** Buffer de bytes reaproveitável para texto ASCII. */
+    private static final class AsciiBuffer implements Appendable {
+        byte[] bytes = new byte[512];
+        int length;
+
+        void clear() { length = 0; }
+
+        @Override
+        public AsciiBuffer append(char ch) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+            bytes[length++] = (byte) ch;
+            return this;
+        }
+
+        @Override
+        public AsciiBuffer append(CharSequence s) {
+            return append(s, 0, s.length());
+        }
+
+        @Override
+        public AsciiBuffer append(CharSequence s, int start, int end) {
+            for (int i=start;i<end;i++) append(s.charAt(i));
+            return this;
         }
-        System.out.println();
     }
 
     /** Verifica se há conflitos visíveis (números duplicados) */
     public boolean hasVisibleConflicts() {
-        // checa duplicações por posição preenchida
-        for (int r=0;r<9;r++){
-            for (int c=0;c<9;c++){
-                int v = cells[r][c];
-                if (v == 0) continue;
-                cells[r][c] = 0; // remove temporariamente
-                boolean ok = isValidMove(r,c,v);
-                cells[r][c] = v;
-                if (!ok) return true;
-            }
-        }
-        return false;
+        return conflicts > 0;
     }
 
     @Override
     public Board clone() {
+        return new Board(this);
+    }
+
+    /** Cópia imutável e compacta do estado atual (valores e pistas fixas). */
+    public BoardSnapshot snapshot() {
+        long[] words = new long[BoardSnapshot.WORDS];
+        for (int i=0;i<81;i++) words[i >> 4] |= (long) cells[i] << ((i & 15) << 2);
+        return new BoardSnapshot(words, fixedLo, fixedHi);
+    }
+}
+
+/**
+ * Tabuleiro imutável: 4 bits por célula em 6 longs, mais a máscara de pistas.
+ * Cada with() copia só essas palavras (tamanho fixo, O(1)) e nunca altera o
+ * original, então snapshots podem ser guardados e compartilhados à vontade
+ * (histórico, sessões, tabuleiros de teste).
+ */
+final class BoardSnapshot {
+    static final int WORDS = 6; // 16 células por long
+    static final BoardSnapshot EMPTY = new BoardSnapshot(new long[WORDS], 0, 0);
+
+    private final long[] words;
+    private final long fixedLo, fixedHi;
+
+    /** words passa a pertencer ao snapshot e não deve mais ser alterado. */
+    BoardSnapshot(long[] words, long fixedLo, long fixedHi) {
+        this.words = words;
+        this.fixedLo = fixedLo;
+        this.fixedHi = fixedHi;
+    }
+
+    public int get(int r, int c) {
+        int i = index(r,c);
+        return (int) (words[i >> 4] >>> ((i & 15) << 2)) & 0xF;
+    }
+
+    public boolean isFixed(int r, int c) {
+        int i = index(r,c);
+        return i < 64 ? (fixedLo & (1L << i)) != 0 : (fixedHi & (1L << (i - 64))) != 0;
+    }
+
+    /** Snapshot igual a este com (r,c) = v. */
+    public BoardSnapshot with(int r, int c, int v) {
+        if (v < 0 || v > 9) throw new IllegalArgumentException("Valor fora de 0..9: " + v);
+        if (get(r,c) == v) return this;
+        int i = r*9 + c, shift = (i & 15) << 2;
+        long[] w = words.clone();
+        w[i >> 4] = (w[i >> 4] & ~(0xFL << shift)) | ((long) v << shift);
+        return new BoardSnapshot(w, fixedLo, fixedHi);
+    }
+
+    /** Snapshot igual a este com a marcação de pista de (r,c) alterada. */
+    public BoardSnapshot withFixed(int r, int c, boolean f) {
+        if (isFixed(r,c) == f) return this;
+        int i = r*9 + c;
+        if (i < 64) return new BoardSnapshot(words, fixedLo ^ (1L << i), fixedHi);
+        return new BoardSnapshot(words, fixedLo, fixedHi ^ (1L << (i - 64)));
+    }
+
+    /** Tabuleiro mutável com o mesmo conteúdo. */
+    public Board toBoard() {
         Board b = new Board();
-        for (int r=0;r<9;r++){
-            System.arraycopy(this.cells[r], 0, b.cells[r], 0, 9);
-            System.arraycopy(this.fixed[r], 0, b.fixed[r], 0, 9);
+        for (int i=0;i<81;i++) {
+            int r = i/9, c = i%9;
+            b.set(r,c, get(r,c));
+            if (isFixed(r,c)) b.setFixed(r,c, true);
         }
         return b;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof BoardSnapshot)) return false;
+        BoardSnapshot s = (BoardSnapshot) o;
+        return fixedLo == s.fixedLo && fixedHi == s.fixedHi && Arrays.equals(words, s.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(words) * 31 + Long.hashCode(fixedLo ^ fixedHi);
+    }
+
+    private static int index(int r, int c) {
+        if (r < 0 || r >= 9 || c < 0 || c >= 9) throw new IndexOutOfBoundsException("(" + r + "," + c + ")");
+        return r*9 + c;
+    }
 }
 
-/** Solver por backtracking + contagem de soluções (até 2). */
-class Solver {
-    public boolean solve(Board b) {
-        int[] pos = findEmpty(b);
-        if (pos == null) return true;
-        int r = pos[0], c = pos[1];
-        for (int v=1; v<=9; v++) {
-            if (b.isValidMove(r,c,v)) {
-                b.set(r,c,v);
-                if (solve(b)) return true;
+/** Resolve tabuleiros e conta soluções (até um limite). */
+interface SudokuSolver {
+    /** Preenche as células vazias de b; false (com b intacto) se não houver solução. */
+    boolean solve(Board b);
+
+    /** Conta as soluções de b até limit, sem alterar o tabuleiro. */
+    int countSolutions(Board b, int limit);
+
+    /**
+     * Existe solução de b com a célula vazia (r,c) diferente de excluded?
+     * Se b sem essa pista tinha solução única com excluded em (r,c), isto decide
+     * a unicidade procurando uma única solução em vez de contar até 2.
+     */
+    default boolean hasAlternative(Board b, int r, int c, int excluded) {
+        if (b.get(r,c) != 0) throw new IllegalArgumentException("Célula ocupada: " + r + "," + c);
+        boolean found = false;
+        for (int m = b.candidates(r,c) & ~(1 << excluded); m != 0 && !found; m &= m - 1) {
+            b.set(r,c, Integer.numberOfTrailingZeros(m));
+            found = countSolutions(b, 1) > 0;
+            b.set(r,c,0);
+        }
+        return found;
+    }
+
+    /**
+     * Toda pista de b é necessária? Supõe b com solução única; tirar uma pista
+     * é necessário se abre outra solução, então basta uma busca hasAlternative
+     * por pista. O tabuleiro volta ao estado original.
+     */
+    default boolean allCluesNeeded(Board b) {
+        for (int r=0;r<9;r++) {
+            for (int c=0;c<9;c++) {
+                int v = b.get(r,c);
+                if (v == 0) continue;
                 b.set(r,c,0);
+                boolean needed = hasAlternative(b, r, c, v);
+                b.set(r,c,v);
+                if (!needed) return false;
             }
         }
-        return false;
+        return true;
     }
+}
+
+/** Implementações de solver disponíveis, escolhidas na inicialização. */
+enum SolverBackend {
+    MRV {
+        SudokuSolver create() { return new Solver(); }
+    },
+    DLX {
+        SudokuSolver create() { return new DlxSolver(); }
+    };
+
+    abstract SudokuSolver create();
+}
+
+/**
+ * Solver por backtracking com propagação de restrições: a cada nó aplica
+ * singles nus/ocultos e ramifica na célula com menos candidatos (MRV).
+ * Guarda estado interno, então cada thread deve usar sua própria instância.
+ */
+class Solver implements SudokuSolver {
+    private static final int ALL = 0x3FE; // bits 1..9
+
+    private static final int[][] UNITS = Units.CELLS;
+    private static final int[] ROW = Units.ROW, COL = Units.COL, BOX = Units.BOX;
+
+    private final int[] cells = new int[81];
+    private final int[] rows = new int[9], cols = new int[9], boxes = new int[9];
+    private final int[] banned = new int[81]; // candidatos proibidos por célula (hasAlternative)
+    private final int[] trail = new int[81]; // células preenchidas, em ordem, para desfazer
+    private int trailLen;
+    private final int[] solution = new int[81];
+    private boolean captured;
+    // contador compartilhado entre buscas paralelas (null na busca normal)
+    private AtomicInteger shared;
+    private int sharedLimit;
 
+    @Override
+    public boolean solve(Board b) {
+        if (!load(b)) return false;
+        captured = false;
+        if (search(1) == 0) return false;
+        for (int i=0;i<81;i++)
+            if (b.get(ROW[i], COL[i]) == 0) b.set(ROW[i], COL[i], solution[i]);
+        return true;
+    }
+
+    @Override
     public int countSolutions(Board b, int limit) {
-        return count(b, limit);
+        if (limit <= 0 || !load(b)) return 0;
+        captured = true; // não precisa guardar a solução
+        return search(limit);
     }
 
-    private int count(Board b, int limit) {
-        if (limit <= 0) return 0;
-        int[] pos = findEmpty(b);
-        if (pos == null) return 1;
-        int r=pos[0], c=pos[1];
-        int solutions = 0;
-        for (int v=1; v<=9; v++) {
-            if (b.isValidMove(r,c,v)) {
-                b.set(r,c,v);
-                solutions += count(b, limit - solutions);
-                b.set(r,c,0);
-                if (solutions >= limit) break;
+    /** Uma busca só, com excluded proibido em (r,c) durante a busca. */
+    @Override
+    public boolean hasAlternative(Board b, int r, int c, int excluded) {
+        if (b.get(r,c) != 0) throw new IllegalArgumentException("Célula ocupada: " + r + "," + c);
+        if (!load(b)) return false;
+        captured = true;
+        int i = r*9 + c;
+        banned[i] = 1 << excluded;
+        try {
+            return search(1) > 0;
+        } finally {
+            banned[i] = 0;
+        }
+    }
+
+    /**
+     * Em lote: carrega b uma vez e, para cada pista, tira só ela do estado,
+     * procura uma solução com o valor original proibido e devolve a pista.
+     */
+    @Override
+    public boolean allCluesNeeded(Board b) {
+        if (!load(b)) return false;
+        captured = true;
+        for (int i=0;i<81;i++) {
+            int v = cells[i];
+            if (v == 0) continue;
+            int bit = 1 << v;
+            cells[i] = 0;
+            rows[ROW[i]] &= ~bit; cols[COL[i]] &= ~bit; boxes[BOX[i]] &= ~bit;
+            banned[i] = bit;
+            boolean needed = search(1) > 0; // search desfaz o que colocou
+            banned[i] = 0;
+            cells[i] = v;
+            rows[ROW[i]] |= bit; cols[COL[i]] |= bit; boxes[BOX[i]] |= bit;
+            if (!needed) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Conta soluções somando cada uma em shared e abandona a busca assim que
+     * shared chega a limit, mesmo que o limite tenha sido atingido por outra thread.
+     */
+    int countSolutions(Board b, int limit, AtomicInteger shared) {
+        if (limit <= 0 || !load(b)) return 0;
+        captured = true;
+        this.shared = shared;
+        this.sharedLimit = limit;
+        try {
+            return search(limit);
+        } finally {
+            this.shared = null;
+        }
+    }
+
+    /** Copia o tabuleiro para o estado interno; false se já houver repetições. */
+    private boolean load(Board b) {
+        trailLen = 0;
+        for (int i=0;i<9;i++) { rows[i] = 0; cols[i] = 0; boxes[i] = 0; }
+        for (int i=0;i<81;i++) {
+            int v = b.get(ROW[i], COL[i]);
+            cells[i] = 0;
+            if (v == 0) continue;
+            if ((candidates(i) & (1 << v)) == 0) return false;
+            place(i, v);
+        }
+        trailLen = 0; // pistas não são desfeitas
+        return true;
+    }
+
+    private int search(int limit) {
+        if (shared != null && shared.get() >= sharedLimit) return 0;
+        int mark = trailLen;
+        if (!propagate()) { undo(mark); return 0; }
+
+        // MRV: célula vazia com menos candidatos
+        int best = -1, bestCount = 10;
+        for (int i=0;i<81 && bestCount > 2;i++) {
+            if (cells[i] != 0) continue;
+            int n = Integer.bitCount(candidates(i));
+            if (n < bestCount) { best = i; bestCount = n; }
+        }
+        if (best < 0) {
+            if (!captured) {
+                System.arraycopy(cells, 0, solution, 0, 81);
+                captured = true;
             }
+            if (shared != null) shared.incrementAndGet();
+            undo(mark);
+            return 1;
         }
+
+        int solutions = 0;
+        for (int m = candidates(best); m != 0 && solutions < limit; m &= m - 1) {
+            place(best, Integer.numberOfTrailingZeros(m));
+            solutions += search(limit - solutions);
+            undo(trailLen - 1);
+        }
+        undo(mark);
         return solutions;
     }
 
-    private int[] findEmpty(Board b) {
-        for (int r=0;r<9;r++)
-            for (int c=0;c<9;c++)
-                if (b.get(r,c)==0) return new int[]{r,c};
-        return null;
+    /** Singles nus e ocultos até estabilizar; false em contradição. */
+    private boolean propagate() {
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            // singles nus: célula com um único candidato
+            for (int i=0;i<81;i++) {
+                if (cells[i] != 0) continue;
+                int m = candidates(i);
+                if (m == 0) return false;
+                if ((m & (m - 1)) == 0) {
+                    place(i, Integer.numberOfTrailingZeros(m));
+                    changed = true;
+                }
+            }
+            // singles ocultos: dígito com um único lugar na unidade
+            for (int u=0;u<27;u++) {
+                int[] unit = UNITS[u];
+                int once = 0, twice = 0, used = 0;
+                for (int k=0;k<9;k++) {
+                    int i = unit[k];
+                    if (cells[i] != 0) { used |= 1 << cells[i]; continue; }
+                    int m = candidates(i);
+                    twice |= once & m;
+                    once |= m;
+                }
+                if ((once | used) != ALL) return false; // dígito sem lugar
+                int singles = once & ~twice & ~used;
+                for (; singles != 0; singles &= singles - 1) {
+                    int v = Integer.numberOfTrailingZeros(singles);
+                    int bit = 1 << v;
+                    for (int k=0;k<9;k++) {
+                        int i = unit[k];
+                        if (cells[i] == 0 && (candidates(i) & bit) != 0) {
+                            place(i, v);
+                            changed = true;
+                            break;
+                        }
+                    }
+                    // colocar um single pode ter eliminado o seguinte
+                    if ((used(u) & bit) == 0) return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private int used(int u) {
+        if (u < 9) return rows[u];
+        if (u < 18) return cols[u-9];
+        return boxes[u-18];
+    }
+
+    private int candidates(int i) {
+        return ~(rows[ROW[i]] | cols[COL[i]] | boxes[BOX[i]] | banned[i]) & ALL;
+    }
+
+    private void place(int i, int v) {
+        int bit = 1 << v;
+        cells[i] = v;
+        rows[ROW[i]] |= bit; cols[COL[i]] |= bit; boxes[BOX[i]] |= bit;
+        trail[trailLen++] = i;
+    }
+
+    private void undo(int mark) {
+        while (trailLen > mark) {
+            int i = trail[--trailLen];
+            int bit = ~(1 << cells[i]);
+            cells[i] = 0;
+            rows[ROW[i]] &= bit; cols[COL[i]] &= bit; boxes[BOX[i]] &= bit;
+        }
     }
 }
 
 /** Gerador de puzzles com solução única. */
 class Generator {
-    private final Random rnd = new Random();
-    private final Solver solver = new Solver();
+    /** Soluções completas tentadas por generateRated antes de desistir. */
+    static final int MAX_ATTEMPTS = 200;
+    /** generateRated só começa a graduar a essa distância (em células) de diff.removals. */
+    private static final int GRADE_MARGIN = 8;
+    /** Órbitas removidas entre duas graduações de generateRated. */
+    private static final int GRADE_BATCH = 4;
+    /**
+     * Trocas tentadas por generateMinimal antes de desistir, cerca de 20 mil
+     * por segundo: 20 pistas saem em décimos de segundo, 18 em segundos e 17
+     * em minutos.
+     */
+    static final int MAX_MINIMAL_SWAPS = 10_000_000;
+    /** Trocas seguidas sem chegar a menos pistas antes de sacudir o puzzle. */
+    private static final int KICK_AFTER = 300;
+    /** Pistas da solução acrescentadas em cada sacudida. */
+    private static final int KICK_CLUES = 2;
+    /** Nenhum Sudoku com solução única tem menos pistas que isso. */
+    static final int MIN_CLUES = 17;
+
+    private final SplittableRandom rnd;
+    private final SudokuSolver solver;
+    private final Grader grader = new Grader();
+
+    // buffers reaproveitados entre gerações: nada é alocado além dos tabuleiros devolvidos
+    private final int[] order = new int[81];          // ordem embaralhada das órbitas (ou células)
+    private final int[][] choices = new int[81][9];   // candidatos por profundidade do fill
+    private final int[] backup = new int[4];          // valores da órbita sendo removida
+    private final int[] pending = new int[81];        // órbitas removidas ainda não graduadas
+    private int pendingCount;
+    private final Board work = new Board();            // rascunhos de generateMinimal
+    private final Board workSolution = new Board();
+
+    Generator() { this(new Solver()); }
+
+    Generator(SudokuSolver solver) { this(new SplittableRandom(), solver); }
+
+    /** Com um SplittableRandom de semente fixa a sequência de puzzles é reproduzível. */
+    Generator(SplittableRandom rnd, SudokuSolver solver) {
+        this.rnd = rnd;
+        this.solver = solver;
+    }
 
     public GeneratedPuzzle generate(Difficulty diff) {
-        Board solved = makeFullSolution();
+        return generate(diff, Symmetry.NONE);
+    }
+
+    /**
+     * Puzzle identificado por (seed, diff): toda a aleatoriedade vem de um
+     * SplittableRandom novo com essa semente e a unicidade não depende do
+     * solver, então a mesma semente dá o mesmo puzzle em qualquer JVM e backend.
+     * O gerador aleatório da instância não é tocado.
+     */
+    public GeneratedPuzzle generate(Difficulty diff, long seed) {
+        return generate(diff, Symmetry.NONE, new SplittableRandom(seed));
+    }
+
+    /** Tira órbitas inteiras da simetria até remover ao menos diff.removals pistas. */
+    public GeneratedPuzzle generate(Difficulty diff, Symmetry sym) {
+        return generate(diff, sym, rnd);
+    }
+
+    private GeneratedPuzzle generate(Difficulty diff, Symmetry sym, SplittableRandom rnd) {
+        Board solved = makeFullSolution(rnd);
         Board puzzle = solved.clone();
 
-        // lista de posições 0..80
-        List<int[]> positions = new ArrayList<>();
-        for (int r=0;r<9;r++)
-            for (int c=0;c<9;c++)
-                positions.add(new int[]{r,c});
-        Collections.shuffle(positions, rnd);
+        // ordem aleatória das órbitas
+        int[][] orbits = sym.orbits;
+        shuffleOrder(orbits.length, rnd);
 
         int removed = 0;
-        for (int[] pos : positions) {
-            if (removed >= diff.removals) break;
-            int r=pos[0], c=pos[1];
-            int backup = puzzle.get(r,c);
-            puzzle.set(r,c,0);
-
-            // checa unicidade
-            Board test = puzzle.clone();
-            int count = solver.countSolutions(test, 2);
-            if (count != 1) {
-                // voltar atrás
-                puzzle.set(r,c,backup);
-            } else {
-                removed++;
+        for (int k=0; k<orbits.length && removed < diff.removals; k++) {
+            int[] orbit = orbits[order[k]];
+            if (removeOrbit(puzzle, orbit)) removed += orbit.length;
+        }
+
+        return finish(puzzle, solved);
+    }
+
+    /** Como generate, mas com o rating do Grader dentro da faixa da dificuldade. */
+    public GeneratedPuzzle generateRated(Difficulty diff) {
+        return generateRated(diff, Symmetry.NONE);
+    }
+
+    /** Versão com semente de generateRated(diff), como em generate(diff, seed). */
+    public GeneratedPuzzle generateRated(Difficulty diff, long seed) {
+        return generate(diff, Symmetry.NONE, diff.minRating, diff.maxRating, new SplittableRandom(seed));
+    }
+
+    public GeneratedPuzzle generateRated(Difficulty diff, Symmetry sym) {
+        return generate(diff, sym, diff.minRating, diff.maxRating);
+    }
+
+    /**
+     * Hill-climbing sobre as remoções: uma pista só sai se o puzzle continua com
+     * solução única e com rating até maxRating (o Grader desiste assim que
+     * precisaria de uma técnica acima do teto, então rejeitar sai barato).
+     * Continua depois de diff.removals enquanto o rating estiver abaixo de
+     * minRating; se as 81 células acabam antes disso, recomeça com outra solução.
+     *
+     * O rating não é recalculado a cada órbita: longe de diff.removals nada é
+     * graduado, e depois as órbitas são graduadas em lotes de GRADE_BATCH (ou
+     * antes, quando o último rating já permitiria parar). Se um lote passa do
+     * teto, settle volta por bisseção até a órbita que cruzou o teto e só ela
+     * fica de fora.
+     */
+    public GeneratedPuzzle generate(Difficulty diff, Symmetry sym, int minRating, int maxRating) {
+        return generate(diff, sym, minRating, maxRating, rnd);
+    }
+
+    private GeneratedPuzzle generate(Difficulty diff, Symmetry sym, int minRating, int maxRating,
+                                     SplittableRandom rnd) {
+        Grader.Technique ceiling = Grader.ceiling(maxRating);
+        int[][] orbits = sym.orbits;
+        for (int attempt=0; attempt<MAX_ATTEMPTS; attempt++) {
+            Board solved = makeFullSolution(rnd);
+            Board puzzle = solved.clone();
+            shuffleOrder(orbits.length, rnd);
+
+            int removed = 0, rating = 0;
+            pendingCount = 0;
+            for (int k=0; k<orbits.length; k++) {
+                int[] orbit = orbits[order[k]];
+                if (!removeOrbit(puzzle, orbit)) continue;
+                removed += orbit.length;
+                pending[pendingCount++] = order[k];
+                if (removed < diff.removals - GRADE_MARGIN) continue;
+                // gradua o lote cheio, ou antes se o último rating já permitiria parar
+                boolean done = removed >= diff.removals && rating >= minRating;
+                if (pendingCount < GRADE_BATCH && !done) continue;
+                rating = settle(puzzle, solved, orbits, rating, ceiling, maxRating);
+                removed = 81 - puzzle.filledCount();
+                if (removed >= diff.removals && rating >= minRating) break;
             }
+            if (pendingCount > 0) rating = settle(puzzle, solved, orbits, rating, ceiling, maxRating);
+            if (rating >= minRating) return finish(puzzle, solved);
         }
+        throw new IllegalStateException("Nenhum puzzle com rating entre " + minRating + " e " + maxRating
+                + " após " + MAX_ATTEMPTS + " tentativas");
+    }
 
-        // marca pistas fixas
-        Board initial = puzzle.clone();
+    /**
+     * Devolve um puzzle mínimo (toda pista necessária) com no máximo maxClues
+     * pistas. A remoção em ordem aleatória para perto de 24 pistas e quase
+     * nunca abaixo de 21, então depois dela o puzzle desce por trocas: uma
+     * pista sorteada sai e uma célula vazia sorteada recebe um candidato
+     * sorteado; se a solução continuar única (ela pode mudar), as pistas que
+     * deixaram de ser necessárias saem. Trocas que não tiram pistas também são
+     * aceitas, o que deixa a busca andar pelo platô, e depois de KICK_AFTER
+     * trocas sem melhora o puzzle ganha KICK_CLUES pistas e é reduzido de novo
+     * em outra ordem, para sair de platôs sem saída.
+     * Só o puzzle aceito é copiado para fora dos rascunhos.
+     */
+    public GeneratedPuzzle generateMinimal(int maxClues) {
+        return generateMinimal(maxClues, MAX_MINIMAL_SWAPS);
+    }
+
+    /** Idem, desistindo com IllegalStateException depois de swaps trocas. */
+    public GeneratedPuzzle generateMinimal(int maxClues, int swaps) {
+        if (maxClues < MIN_CLUES)
+            throw new IllegalArgumentException("Mínimo de " + MIN_CLUES + " pistas: " + maxClues);
+        if (swaps < 0)
+            throw new IllegalArgumentException("Trocas negativas: " + swaps);
         for (int r=0;r<9;r++)
-            for (int c=0;c<9;c++)
-                initial.setFixed(r,c, initial.get(r,c) != 0);
+            for (int c=0;c<9;c++) { workSolution.set(r,c,0); work.set(r,c,0); }
+        fill(workSolution, 0, rnd);
+        for (int r=0;r<9;r++)
+            for (int c=0;c<9;c++) work.set(r,c, workSolution.get(r,c));
+        shuffleOrder(81, rnd);
+        int kept = removeUnneeded(81);
+        int best = kept, stale = 0;
+        for (int s=0; s<swaps && kept > maxClues; s++) {
+            kept = swapClue();
+            if (kept < best) {
+                best = kept;
+                stale = 0;
+            } else if (++stale == KICK_AFTER) {
+                kept = kick();
+                stale = 0;
+            }
+        }
+        if (kept > maxClues)
+            throw new IllegalStateException("Nenhum puzzle mínimo com até " + maxClues + " pistas após "
+                    + swaps + " trocas");
+        return finish(work.clone(), workSolution.clone());
+    }
+
+    /**
+     * Tira de work, na ordem order[0..n), cada pista que não é necessária e
+     * devolve quantas sobram. Uma passada basta: se tirar uma pista abriu outra
+     * solução, tirar mais pistas depois só abre mais, então ela continua necessária.
+     */
+    private int removeUnneeded(int n) {
+        for (int k=0;k<n;k++) {
+            int r = order[k] / 9, c = order[k] % 9;
+            int v = work.get(r,c);
+            if (v == 0) continue;
+            work.set(r,c,0);
+            if (solver.hasAlternative(work, r, c, v)) work.set(r,c,v);
+        }
+        return work.filledCount();
+    }
+
+    /** Uma troca de generateMinimal sobre o puzzle mínimo em work; devolve as pistas que sobram. */
+    private int swapClue() {
+        int from, to;
+        do from = rnd.nextInt(81); while (work.get(from/9, from%9) == 0);
+        do to = rnd.nextInt(81); while (work.get(to/9, to%9) != 0);
+        int v = work.get(from/9, from%9);
+        work.set(from/9, from%9, 0);
+        int m = work.candidates(to/9, to%9); // inclui o valor da solução
+        for (int k=rnd.nextInt(Integer.bitCount(m)); k>0; k--) m &= m - 1;
+        int w = Integer.numberOfTrailingZeros(m);
+        work.set(to/9, to%9, w);
+        boolean unique;
+        if (w == workSolution.get(to/9, to%9)) {
+            // com v de volta em from é o puzzle anterior mais uma pista, então único:
+            // basta ver se from admite outro valor
+            unique = !solver.hasAlternative(work, from/9, from%9, v);
+        } else {
+            unique = solver.countSolutions(work, 2) == 1;
+            if (unique) {
+                for (int i=0;i<81;i++) workSolution.set(i/9, i%9, work.get(i/9, i%9));
+                solver.solve(workSolution);
+            }
+        }
+        if (!unique) {
+            work.set(to/9, to%9, 0);
+            work.set(from/9, from%9, v);
+            return work.filledCount();
+        }
+        return reduce();
+    }
+
+    /** Sacudida de generateMinimal: acrescenta KICK_CLUES pistas da solução e reduz de novo. */
+    private int kick() {
+        for (int k=0;k<KICK_CLUES;k++) {
+            int to;
+            do to = rnd.nextInt(81); while (work.get(to/9, to%9) != 0);
+            work.set(to/9, to%9, workSolution.get(to/9, to%9));
+        }
+        return reduce();
+    }
+
+    /** removeUnneeded sobre as pistas de work em ordem aleatória. */
+    private int reduce() {
+        int n = 0;
+        for (int i=0;i<81;i++)
+            if (work.get(i/9, i%9) != 0) order[n++] = i;
+        shuffle(order, n, rnd);
+        return removeUnneeded(n);
+    }
+
+    /**
+     * Certifica que o puzzle tem solução única e que cada pista é necessária
+     * (SudokuSolver.allCluesNeeded: o Solver carrega o puzzle uma vez para
+     * todas as pistas). O tabuleiro volta ao estado original.
+     */
+    public boolean certifyMinimal(Board puzzle) {
+        return solver.countSolutions(puzzle, 2) == 1 && solver.allCluesNeeded(puzzle);
+    }
+
+    /**
+     * Tira as pistas da órbita; false (com as pistas de volta) se a solução
+     * deixar de ser única. Uma checagem por órbita: célula isolada usa
+     * hasAlternative, órbitas maiores contam até 2 soluções.
+     */
+    private boolean removeOrbit(Board puzzle, int[] orbit) {
+        for (int k=0;k<orbit.length;k++) {
+            int i = orbit[k];
+            backup[k] = puzzle.get(i/9, i%9);
+            puzzle.set(i/9, i%9, 0);
+        }
+        boolean unique = orbit.length == 1
+                ? !solver.hasAlternative(puzzle, orbit[0]/9, orbit[0]%9, backup[0])
+                : solver.countSolutions(puzzle, 2) == 1;
+        if (!unique) restoreOrbit(puzzle, orbit);
+        return unique;
+    }
+
+    private void restoreOrbit(Board puzzle, int[] orbit) {
+        for (int k=0;k<orbit.length;k++)
+            puzzle.set(orbit[k]/9, orbit[k]%9, backup[k]);
+    }
+
+    /**
+     * Gradua o lote pendente de generateRated e devolve o rating. Se passar de
+     * maxRating, bissecta o lote: o maior prefixo dentro do teto fica, a órbita
+     * seguinte volta ao puzzle e o resto do lote é removido de novo (com mais
+     * pistas a solução continua única) e graduado outra vez. Termina com o
+     * lote vazio e o puzzle graduado dentro do teto.
+     */
+    private int settle(Board puzzle, Board solved, int[][] orbits, int rating,
+                       Grader.Technique ceiling, int maxRating) {
+        while (pendingCount > 0) {
+            int g = grader.grade(puzzle, ceiling).rating;
+            if (g <= maxRating) {
+                pendingCount = 0;
+                return g;
+            }
+            // prefixo lo cabe no teto (o lote vazio já foi graduado), hi não
+            int lo = 0, hi = pendingCount, applied = pendingCount;
+            while (hi - lo > 1) {
+                int mid = (lo + hi) >>> 1;
+                applied = applyPending(puzzle, solved, orbits, applied, mid);
+                g = grader.grade(puzzle, ceiling).rating;
+                if (g <= maxRating) { lo = mid; rating = g; }
+                else hi = mid;
+            }
+            applyPending(puzzle, solved, orbits, applied, lo);
+            int rest = 0;
+            for (int k=lo+1; k<pendingCount; k++) {
+                int[] orbit = orbits[pending[k]];
+                for (int i : orbit) puzzle.set(i/9, i%9, 0);
+                pending[rest++] = pending[k];
+            }
+            pendingCount = rest;
+        }
+        return rating;
+    }
 
-        return new GeneratedPuzzle(initial, solved);
+    /** Deixa removidas só as órbitas pending[0..n), partindo de pending[0..applied); devolve n. */
+    private int applyPending(Board puzzle, Board solved, int[][] orbits, int applied, int n) {
+        for (int k=applied-1; k>=n; k--)
+            for (int i : orbits[pending[k]]) puzzle.set(i/9, i%9, solved.get(i/9, i%9));
+        for (int k=applied; k<n; k++)
+            for (int i : orbits[pending[k]]) puzzle.set(i/9, i%9, 0);
+        return n;
+    }
+
+    /** Marca as pistas restantes como fixas. */
+    private static GeneratedPuzzle finish(Board puzzle, Board solved) {
+        for (int r=0;r<9;r++)
+            for (int c=0;c<9;c++)
+                puzzle.setFixed(r,c, puzzle.get(r,c) != 0);
+        return new GeneratedPuzzle(puzzle, solved);
     }
 
     /** Cria uma solução completa aleatória via backtracking com ordem embaralhada. */
-    private Board makeFullSolution() {
+    private Board makeFullSolution(SplittableRandom rnd) {
         Board b = new Board();
-        fill(b, 0);
+        fill(b, 0, rnd);
         return b;
     }
 
-    private boolean fill(Board b, int idx) {
+    private boolean fill(Board b, int idx, SplittableRandom rnd) {
         if (idx == 81) return true;
         int r = idx / 9, c = idx % 9;
-        if (b.get(r,c) != 0) return fill(b, idx+1);
+        if (b.get(r,c) != 0) return fill(b, idx+1, rnd);
 
-        List<Integer> vals = new ArrayList<>();
-        for (int v=1; v<=9; v++) vals.add(v);
-        Collections.shuffle(vals, rnd);
-        for (int v : vals) {
-            if (b.isValidMove(r,c,v)) {
-                b.set(r,c,v);
-                if (fill(b, idx+1)) return true;
-                b.set(r,c,0);
-            }
+        int[] vals = choices[idx];
+        int n = 0;
+        for (int m = b.candidates(r,c); m != 0; m &= m - 1)
+            vals[n++] = Integer.numberOfTrailingZeros(m);
+        shuffle(vals, n, rnd);
+        for (int k=0; k<n; k++) {
+            b.set(r,c,vals[k]);
+            if (fill(b, idx+1, rnd)) return true;
+            b.set(r,c,0);
         }
         return false;
     }
+
+    /** Deixa em order[0..n) uma permutação aleatória de 0..n-1. */
+    private void shuffleOrder(int n, SplittableRandom rnd) {
+        for (int i=0;i<n;i++) order[i] = i;
+        shuffle(order, n, rnd);
+    }
+
+    /** Fisher–Yates sobre os n primeiros elementos. */
+    private static void shuffle(int[] a, int n, SplittableRandom rnd) {
+        for (int i=n-1; i>0; i--) {
+            int j = rnd.nextInt(i + 1);
+            int t = a[i]; a[i] = a[j]; a[j] = t;
+        }
+    }
 }
 
 class GeneratedPuzzle {
@@ -255,67 +1115,101 @@ class GeneratedPuzzle {
     }
 }
 
+/** Como o jogo mostra o tabuleiro depois de cada comando. */
+interface BoardView {
+    /** Mostra o estado atual (pode redesenhar só o que mudou desde a última vez). */
+    void show(Board b);
+
+    /** Redesenha o tabuleiro inteiro. */
+    default void redraw(Board b) { show(b); }
+
+    /** Chamado ao sair do jogo. */
+    default void close() {}
+}
+
 /** Controla o loop do jogo e comandos do usuário. */
 class SudokuGame {
-    private final Generator generator = new Generator();
-    private final Solver solver = new Solver();
+    private final SudokuSolver solver;
     private final Difficulty difficulty;
-    private Board initial;
+    private final BoardSnapshot initial;
+    private final BoardSnapshot solution;
     private Board current;
-    private Board solution;
+    private final MoveJournal journal = new MoveJournal();
+    private BoardView view = Board::print;
+
+    SudokuGame(Difficulty difficulty) { this(difficulty, SolverBackend.MRV); }
 
-    SudokuGame(Difficulty difficulty) {
+    SudokuGame(Difficulty difficulty, SolverBackend backend) {
+        this(difficulty, new Generator(backend.create()).generateRated(difficulty), backend);
+    }
+
+    /** Começa um jogo com um puzzle já gerado (por exemplo, vindo de um PuzzlePool). */
+    SudokuGame(Difficulty difficulty, GeneratedPuzzle gp, SolverBackend backend) {
         this.difficulty = difficulty;
-        GeneratedPuzzle gp = generator.generate(difficulty);
-        this.initial = gp.initial;
-        this.solution = gp.solution;
-        this.current = initial.clone();
+        this.solver = backend.create();
+        this.initial = gp.initial.snapshot();
+        this.solution = gp.solution.snapshot();
+        this.current = initial.toBoard();
     }
 
+    void setView(BoardView view) { this.view = view; }
+
     public void loop(Scanner sc) {
-        printWelcome();
-        current.print();
-        printHelp();
+        try {
+            view.show(current);
+            printWelcome();
+            printHelp();
 
-        while (true) {
-            System.out.print("> ");
-            String line = sc.nextLine().trim();
-            if (line.isEmpty()) continue;
+            while (true) {
+                System.out.print("> ");
+                String line;
+                try {
+                    line = sc.nextLine().trim();
+                } catch (NoSuchElementException eof) {
+                    line = "quit"; // fim da entrada (Ctrl-D) vale como quit
+                }
+                if (line.isEmpty()) continue;
 
-            String[] parts = line.split("\\s+");
-            String cmd = parts[0].toLowerCase(Locale.ROOT);
+                String[] parts = line.split("\\s+");
+                String cmd = parts[0].toLowerCase(Locale.ROOT);
 
-            try {
-                switch (cmd) {
-                    case "play" -> {
-                        if (parts.length != 4) { usagePlay(); break; }
-                        int r = Integer.parseInt(parts[1]) - 1;
-                        int c = Integer.parseInt(parts[2]) - 1;
-                        int v = Integer.parseInt(parts[3]);
-                        play(r,c,v);
-                    }
-                    case "erase" -> {
-                        if (parts.length != 3) { System.out.println("Uso: erase r c"); break; }
-                        int r = Integer.parseInt(parts[1]) - 1;
-                        int c = Integer.parseInt(parts[2]) - 1;
-                        erase(r,c);
-                    }
-                    case "hint" -> hint();
-                    case "check" -> check();
-                    case "solve" -> solveAll();
-                    case "reset" -> reset();
-                    case "print" -> current.print();
-                    case "help" -> printHelp();
-                    case "quit", "exit" -> { System.out.println("Até mais!"); return; }
-                    default -> {
-                        System.out.println("Comando desconhecido. Digite 'help' para ver a ajuda.");
+                try {
+                    switch (cmd) {
+                        case "play" -> {
+                            if (parts.length != 4) { usagePlay(); break; }
+                            int r = Integer.parseInt(parts[1]) - 1;
+                            int c = Integer.parseInt(parts[2]) - 1;
+                            int v = Integer.parseInt(parts[3]);
+                            play(r,c,v);
+                        }
+                        case "erase" -> {
+                            if (parts.length != 3) { System.out.println("Uso: erase r c"); break; }
+                            int r = Integer.parseInt(parts[1]) - 1;
+                            int c = Integer.parseInt(parts[2]) - 1;
+                            erase(r,c);
+                        }
+                        case "hint" -> hint();
+                        case "check" -> check();
+                        case "solve" -> solveAll();
+                        case "reset" -> reset();
+                        case "undo" -> undo();
+                        case "redo" -> redo();
+                        case "print" -> view.redraw(current);
+                        case "help" -> printHelp();
+                        case "quit", "exit" -> { view.close(); System.out.println("Até mais!"); return; }
+                        default -> {
+                            System.out.println("Comando desconhecido. Digite 'help' para ver a ajuda.");
+                        }
                     }
+                } catch (NumberFormatException nfe) {
+                    System.out.println("Parâmetros inválidos. Use números inteiros.");
+                } catch (IndexOutOfBoundsException ioobe) {
+                    System.out.println("Coordenadas fora do intervalo (1..9).");
                 }
-            } catch (NumberFormatException nfe) {
-                System.out.println("Parâmetros inválidos. Use números inteiros.");
-            } catch (IndexOutOfBoundsException ioobe) {
-                System.out.println("Coordenadas fora do intervalo (1..9).");
             }
+        } finally {
+            // também no fim da entrada ou numa exceção: o terminal não fica com a rolagem presa
+            view.close();
         }
     }
 
@@ -334,6 +1228,7 @@ class SudokuGame {
         System.out.println("  check        -> verifica conflitos visíveis");
         System.out.println("  solve        -> resolve todo o tabuleiro");
         System.out.println("  reset        -> volta ao início");
+        System.out.println("  undo / redo  -> desfaz / refaz a última alteração");
         System.out.println("  print        -> mostra o tabuleiro");
         System.out.println("  help         -> esta ajuda");
         System.out.println("  quit         -> sair");
@@ -359,9 +1254,10 @@ class SudokuGame {
             System.out.println("Jogada inválida (conflita com linha/coluna/bloco).");
             return;
         }
+        journal.record(r, c, current.get(r,c), v, MoveJournal.PLAY, false);
         current.set(r,c,v);
         System.out.printf("OK: (%d,%d) = %d%n", r+1, c+1, v);
-        current.print();
+        view.show(current);
 
         if (current.isComplete() && !current.hasVisibleConflicts()) {
             System.out.println("Parabéns! Você completou o Sudoku.");
@@ -378,9 +1274,10 @@ class SudokuGame {
             System.out.println("Essa célula já está vazia.");
             return;
         }
+        journal.record(r, c, current.get(r,c), 0, MoveJournal.ERASE, false);
         current.set(r,c,0);
         System.out.printf("Apagado: (%d,%d)%n", r+1, c+1);
-        current.print();
+        view.show(current);
     }
 
     private void hint() {
@@ -389,9 +1286,10 @@ class SudokuGame {
             for (int c=0;c<9;c++) {
                 if (current.get(r,c)==0) {
                     int v = solution.get(r,c);
+                    journal.record(r, c, 0, v, MoveJournal.HINT, false);
                     current.set(r,c,v);
                     System.out.printf("Dica: (%d,%d) = %d%n", r+1, c+1, v);
-                    current.print();
+                    view.show(current);
                     return;
                 }
             }
@@ -409,24 +1307,58 @@ class SudokuGame {
     }
 
     private void solveAll() {
-        Board temp = current.clone();
-        if (solver.solve(temp)) {
-            current = temp;
-            // Manter as pistas iniciais marcadas
-            for (int r=0;r<9;r++)
-                for (int c=0;c<9;c++)
-                    current.setFixed(r,c, initial.isFixed(r,c));
+        // solve só altera o tabuleiro quando encontra solução; as pistas continuam marcadas
+        BoardSnapshot before = current.snapshot();
+        if (solver.solve(current)) {
+            recordChanges(before, MoveJournal.SOLVE);
             System.out.println("Tabuleiro resolvido:");
-            current.print();
+            view.show(current);
         } else {
             System.out.println("Não foi possível resolver (inconsistente).");
         }
     }
 
     private void reset() {
-        current = initial.clone();
+        BoardSnapshot before = current.snapshot();
+        for (int r=0;r<9;r++)
+            for (int c=0;c<9;c++)
+                current.set(r,c, initial.get(r,c));
+        recordChanges(before, MoveJournal.RESET);
         System.out.println("Puzzle resetado ao estado inicial.");
-        current.print();
+        view.show(current);
+    }
+
+    private void undo() {
+        int e = journal.undo(current);
+        if (e < 0) {
+            System.out.println("Nada para desfazer.");
+            return;
+        }
+        System.out.println("Desfeito: " + MoveJournal.describe(e));
+        view.show(current);
+    }
+
+    private void redo() {
+        int e = journal.redo(current);
+        if (e < 0) {
+            System.out.println("Nada para refazer.");
+            return;
+        }
+        System.out.println("Refeito: " + MoveJournal.describe(e));
+        view.show(current);
+    }
+
+    /** Grava no histórico, como um único passo, as células que mudaram desde before. */
+    private void recordChanges(BoardSnapshot before, int source) {
+        boolean linked = false;
+        for (int r=0;r<9;r++) {
+            for (int c=0;c<9;c++) {
+                int old = before.get(r,c), now = current.get(r,c);
+                if (old == now) continue;
+                journal.record(r, c, old, now, source, linked);
+                linked = true;
+            }
+        }
     }
 
     private void ensureInside(int r, int c) {
@@ -0,0 +1,23 @@
+package Sudoku;
+
+/**
+ * Tabelas de unidades compartilhadas por Board, Solver e Grader.
+ * Unidades: 0..8 linhas, 9..17 colunas, 18..26 blocos; células são r*9+c.
+ */
+final class Units {
+    /** CELLS[u]: as 9 células da unidade u, em ordem de leitura. */
+    static final int[][] CELLS = new int[27][9];
+    /** Linha, coluna e bloco (0..8) de cada célula. */
+    static final int[] ROW = new int[81], COL = new int[81], BOX = new int[81];
+    static {
+        for (int i=0;i<81;i++) {
+            int r = i/9, c = i%9, b = (r/3)*3 + c/3;
+            ROW[i] = r; COL[i] = c; BOX[i] = b;
+            CELLS[r][c] = i;
+            CELLS[9+c][r] = i;
+            CELLS[18+b][(r%3)*3 + c%3] = i;
+        }
+    }
+
+    private Units() {}
+}
@@ -0,0 +1,98 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/** Os contadores incrementais de Board devem bater com uma recontagem do zero. */
+class BoardTest {
+    private static final int EDITS = 20_000;
+
+    /** Edição sorteada: poucos dígitos e muitos zeros, para criar e desfazer repetições. */
+    private static void edit(Board b, SplittableRandom rnd) {
+        int v = rnd.nextInt(3) == 0 ? 0 : 1 + rnd.nextInt(4);
+        b.set(rnd.nextInt(9), rnd.nextInt(9), v);
+    }
+
+    private static String line(Board b) {
+        StringBuilder sb = new StringBuilder(81);
+        for (int i=0;i<81;i++) sb.append((char) ('0' + b.get(i/9, i%9)));
+        return sb.toString();
+    }
+
+    private static void assertConflicts(Board b) {
+        boolean repeated = false;
+        for (int r=0;r<9;r++) {
+            for (int c=0;c<9;c++) {
+                int v = b.get(r,c);
+                for (int k=0;k<9;k++) {
+                    if (v == 0) break;
+                    if ((k != c && b.get(r,k) == v) || (k != r && b.get(k,c) == v)) repeated = true;
+                    int br = (r/3)*3 + k/3, bc = (c/3)*3 + k%3;
+                    if ((br != r || bc != c) && b.get(br,bc) == v) repeated = true;
+                }
+                int seen = 0;
+                for (int k=0;k<9;k++) {
+                    seen |= 1 << b.get(r,k) | 1 << b.get(k,c);
+                    seen |= 1 << b.get((r/3)*3 + k/3, (c/3)*3 + k%3);
+                }
+                assertEquals(~seen & 0x3FE, b.candidates(r,c), "candidatos em " + r + "," + c);
+            }
+        }
+        assertEquals(repeated, b.hasVisibleConflicts());
+    }
+
+    private static void assertFilled(Board b) {
+        int filled = 0;
+        for (int r=0;r<9;r++)
+            for (int c=0;c<9;c++) if (b.get(r,c) != 0) filled++;
+        assertEquals(filled, b.filledCount());
+        assertEquals(filled == 81, b.isComplete());
+    }
+
+    @Test
+    void conflictsFollowEdits() {
+        SplittableRandom rnd = new SplittableRandom(1);
+        Board b = new Board();
+        for (int k=0;k<EDITS;k++) {
+            edit(b, rnd);
+            assertConflicts(b);
+        }
+    }
+
+    @Test
+    void filledCountFollowsEdits() {
+        SplittableRandom rnd = new SplittableRandom(2);
+        Board b = new Board();
+        for (int k=0;k<EDITS;k++) {
+            edit(b, rnd);
+            assertFilled(b);
+        }
+        GeneratedPuzzle p = new Generator(new SplittableRandom(3), new Solver()).generate(Difficulty.EASY);
+        b.load(line(p.solution), 0);
+        assertFilled(b);
+        b.load(line(p.initial), 0);
+        assertFilled(b);
+    }
+
+    @Test
+    void cloneKeepsCountersIndependent() {
+        SplittableRandom rnd = new SplittableRandom(4);
+        Board a = new Board();
+        for (int k=0;k<200;k++) edit(a, rnd);
+        for (int round=0; round<50; round++) {
+            Board b = a.clone();
+            assertConflicts(b);
+            assertFilled(b);
+            for (int k=0;k<100;k++) {
+                edit(a, rnd);
+                edit(b, rnd);
+            }
+            assertConflicts(a);
+            assertFilled(a);
+            assertConflicts(b);
+            assertFilled(b);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class CanonicalTest {
+    private static final int[][] PERM3 = { {0,1,2}, {0,2,1}, {1,0,2}, {1,2,0}, {2,0,1}, {2,1,0} };
+
+    /** Todas as 1296 ordens de linhas (faixas e linhas dentro das faixas), montadas à parte de Canonical. */
+    private static int[][] lineOrders() {
+        int[][] orders = new int[1296][9];
+        int n = 0;
+        for (int[] bands : PERM3)
+            for (int[] p0 : PERM3)
+                for (int[] p1 : PERM3)
+                    for (int[] p2 : PERM3) {
+                        int[][] inner = { p0, p1, p2 };
+                        for (int s=0;s<3;s++)
+                            for (int k=0;k<3;k++) orders[n][s*3 + k] = bands[s]*3 + inner[s][k];
+                        n++;
+                    }
+        return orders;
+    }
+
+    /** Menor sequência entre todas as variantes, renomeando dígitos por primeira aparição. */
+    private static byte[] bruteForce(Board b) {
+        int[][] orders = lineOrders();
+        byte[] best = new byte[81];
+        Arrays.fill(best, Byte.MAX_VALUE);
+        int[] grid = new int[81];
+        int[] labels = new int[10];
+        for (int t=0;t<2;t++) {
+            for (int r=0;r<9;r++)
+                for (int c=0;c<9;c++) grid[r*9 + c] = t == 0 ? b.get(r,c) : b.get(c,r);
+            for (int[] rows : orders) {
+                for (int[] cols : orders) {
+                    Arrays.fill(labels, 0);
+                    int next = 0;
+                    boolean less = false;
+                    for (int i=0;i<81;i++) {
+                        int v = grid[rows[i / 9]*9 + cols[i % 9]];
+                        if (v != 0 && labels[v] == 0) labels[v] = ++next;
+                        int x = labels[v];
+                        if (!less) {
+                            if (x > best[i]) break;
+                            if (x < best[i]) less = true;
+                        }
+                        if (less) best[i] = (byte) x;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static Board[] boards() {
+        Generator gen = new Generator(new SplittableRandom(42), new Solver());
+        GeneratedPuzzle easy = gen.generate(Difficulty.EASY);
+        return new Board[] { easy.initial, easy.solution, gen.generate(Difficulty.HARD).initial,
+                gen.generateMinimal(30).initial };
+    }
+
+    @Test
+    void matchesBruteForce() {
+        Canonical canonical = new Canonical();
+        byte[] form = new byte[81];
+        for (Board b : boards()) {
+            canonical.canonicalize(b, form);
+            assertArrayEquals(bruteForce(b), form);
+        }
+    }
+
+    @Test
+    void invariantUnderIsomorph() {
+        Canonical canonical = new Canonical();
+        SplittableRandom rnd = new SplittableRandom(7);
+        byte[] expected = new byte[81], form = new byte[81];
+        for (Board b : boards()) {
+            canonical.canonicalize(b, expected);
+            for (int k=0;k<20;k++) {
+                canonical.canonicalize(Isomorph.random(rnd).apply(b), form);
+                assertArrayEquals(expected, form);
+            }
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+class GraderTest {
+    /** Puzzles de todas as dificuldades e alguns mínimos, que costumam exigir tentativa e erro. */
+    private static List<GeneratedPuzzle> puzzles() {
+        Generator gen = new Generator(new SplittableRandom(21), new Solver());
+        List<GeneratedPuzzle> puzzles = new ArrayList<>();
+        for (int k=0;k<30;k++)
+            for (Difficulty d : Difficulty.values()) puzzles.add(gen.generateRated(d));
+        for (int k=0;k<10;k++) puzzles.add(gen.generateMinimal(24));
+        return puzzles;
+    }
+
+    @Test
+    void placesOnlySolutionDigits() {
+        Grader grader = new Grader();
+        Board progress = new Board();
+        for (GeneratedPuzzle p : puzzles()) {
+            for (Grader.Technique ceiling : Grader.Technique.values()) {
+                Grader.Grade g = grader.grade(p.initial, ceiling);
+                grader.progress(progress);
+                int filled = 0;
+                for (int r=0;r<9;r++) {
+                    for (int c=0;c<9;c++) {
+                        int v = progress.get(r,c);
+                        if (v == 0) continue;
+                        filled++;
+                        assertEquals(p.solution.get(r,c), v, "célula " + r + "," + c + " com teto " + ceiling);
+                    }
+                }
+                // sem tentativa e erro a avaliação termina com o tabuleiro resolvido
+                if (g.hardest != Grader.Technique.GUESS) assertEquals(81, filled);
+            }
+        }
+    }
+
+    @Test
+    void ratedPuzzlesStayInBand() {
+        Grader grader = new Grader();
+        Generator gen = new Generator(new SplittableRandom(22), new Solver());
+        for (Difficulty d : Difficulty.values()) {
+            for (int k=0;k<20;k++) {
+                int rating = grader.grade(gen.generateRated(d).initial).rating;
+                assertTrue(rating >= d.minRating && rating <= d.maxRating, d + ": " + rating);
+            }
+        }
+    }
+}
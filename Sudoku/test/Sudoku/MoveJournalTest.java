@@ -0,0 +1,83 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MoveJournalTest {
+    private static void play(MoveJournal journal, Board b, int r, int c, int v, int source, boolean linked) {
+        journal.record(r, c, b.get(r,c), v, source, linked);
+        b.set(r, c, v);
+    }
+
+    @Test
+    void undoRedoRoundTrip() {
+        MoveJournal journal = new MoveJournal();
+        Board b = new Board();
+        BoardSnapshot empty = b.snapshot();
+        play(journal, b, 0, 0, 5, MoveJournal.PLAY, false);
+        BoardSnapshot afterPlay = b.snapshot();
+        // um passo com várias células, como solve
+        play(journal, b, 4, 4, 1, MoveJournal.SOLVE, false);
+        play(journal, b, 4, 5, 2, MoveJournal.SOLVE, true);
+        play(journal, b, 8, 8, 3, MoveJournal.SOLVE, true);
+        BoardSnapshot afterSolve = b.snapshot();
+        play(journal, b, 0, 0, 0, MoveJournal.ERASE, false);
+        BoardSnapshot afterErase = b.snapshot();
+
+        assertEquals(MoveJournal.ERASE, MoveJournal.source(journal.undo(b)));
+        assertEquals(afterSolve, b.snapshot());
+        int e = journal.undo(b);
+        assertEquals(MoveJournal.SOLVE, MoveJournal.source(e));
+        assertEquals(4*9 + 4, MoveJournal.cell(e));
+        assertEquals(afterPlay, b.snapshot());
+        journal.undo(b);
+        assertEquals(empty, b.snapshot());
+        assertFalse(journal.canUndo());
+        assertEquals(-1, journal.undo(b));
+
+        assertEquals(MoveJournal.PLAY, MoveJournal.source(journal.redo(b)));
+        assertEquals(afterPlay, b.snapshot());
+        e = journal.redo(b);
+        assertEquals(MoveJournal.SOLVE, MoveJournal.source(e));
+        assertEquals(1, MoveJournal.newValue(e));
+        assertEquals(afterSolve, b.snapshot());
+        journal.redo(b);
+        assertEquals(afterErase, b.snapshot());
+        assertFalse(journal.canRedo());
+        assertEquals(-1, journal.redo(b));
+    }
+
+    @Test
+    void recordDiscardsRedo() {
+        MoveJournal journal = new MoveJournal();
+        Board b = new Board();
+        play(journal, b, 0, 0, 5, MoveJournal.PLAY, false);
+        play(journal, b, 1, 1, 6, MoveJournal.PLAY, false);
+        journal.undo(b);
+        assertTrue(journal.canRedo());
+        play(journal, b, 2, 2, 7, MoveJournal.HINT, false);
+        assertFalse(journal.canRedo());
+        assertEquals(0, b.get(1,1));
+        journal.undo(b);
+        journal.undo(b);
+        assertEquals(new Board().snapshot(), b.snapshot());
+    }
+
+    @Test
+    void growsPastInitialCapacity() {
+        MoveJournal journal = new MoveJournal();
+        Board b = new Board();
+        for (int k=0;k<1000;k++) play(journal, b, k % 9, (k / 9) % 9, 1 + k % 9, MoveJournal.PLAY, false);
+        BoardSnapshot last = b.snapshot();
+        int steps = 0;
+        while (journal.undo(b) != -1) steps++;
+        assertEquals(1000, steps);
+        assertEquals(new Board().snapshot(), b.snapshot());
+        while (journal.redo(b) != -1) steps--;
+        assertEquals(0, steps);
+        assertEquals(last, b.snapshot());
+    }
+}
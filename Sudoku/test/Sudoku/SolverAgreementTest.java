@@ -0,0 +1,66 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+
+/** MRV, DLX e ParallelSolver devem concordar em contagens e unicidade. */
+class SolverAgreementTest {
+    private static final SudokuSolver[] SOLVERS = { new Solver(), new DlxSolver(), new ParallelSolver() };
+
+    /** Puzzles únicos, com pistas tiradas (várias soluções), sem solução e com conflito. */
+    private static List<Board> boards() {
+        Generator gen = new Generator(new SplittableRandom(11), new Solver());
+        SplittableRandom rnd = new SplittableRandom(12);
+        List<Board> boards = new ArrayList<>();
+        for (Difficulty d : Difficulty.values()) {
+            GeneratedPuzzle p = gen.generate(d);
+            boards.add(p.initial);
+            Board open = p.initial.clone();
+            for (int k=0;k<6;k++) open.set(rnd.nextInt(9), rnd.nextInt(9), 0);
+            boards.add(open);
+            Board unsolvable = p.initial.clone();
+            for (int i=0;i<81;i++) {
+                int r = i / 9, c = i % 9;
+                if (unsolvable.get(r,c) == 0 && p.solution.get(r,c) != 9 && unsolvable.isValidMove(r, c, 9)) {
+                    unsolvable.set(r, c, 9);
+                    break;
+                }
+            }
+            boards.add(unsolvable);
+        }
+        boards.add(new Board());
+        boards.add(Board.parse("11" + "0".repeat(79)));
+        return boards;
+    }
+
+    @Test
+    void countSolutionsAgree() {
+        for (Board b : boards()) {
+            for (int limit : new int[] { 1, 2, 5 }) {
+                int expected = SOLVERS[0].countSolutions(b, limit);
+                for (SudokuSolver s : SOLVERS)
+                    assertEquals(expected, s.countSolutions(b, limit), s.getClass().getSimpleName());
+            }
+        }
+    }
+
+    @Test
+    void hasAlternativeAgrees() {
+        for (Board b : boards()) {
+            if (SOLVERS[0].countSolutions(b, 2) != 1) continue;
+            for (int i=0;i<81;i+=7) {
+                int r = i / 9, c = i % 9, v = b.get(r,c);
+                if (v == 0) continue;
+                b.set(r,c,0);
+                boolean expected = SOLVERS[0].countSolutions(b, 2) > 1;
+                for (SudokuSolver s : SOLVERS)
+                    assertEquals(expected, s.hasAlternative(b, r, c, v), s.getClass().getSimpleName());
+                b.set(r,c,v);
+            }
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package Sudoku;
+
+import java.lang.management.ManagementFactory;
+import java.util.SplittableRandom;
+
+/**
+ * Verifica que solve/countSolutions não alocam nada depois do aquecimento
+ * e que generate aloca apenas o puzzle devolvido.
+ *
+ * Roda em todo mvn verify pelo AllocationCheckIT; à mão (depois de mvn package):
+ *   java -cp benchmarks/target/benchmarks.jar Sudoku.AllocationCheck
+ */
+public class AllocationCheck {
+    private static final int WARMUP = 20_000;
+    private static final int ROUNDS = 2_000;
+    // margem para alocações da própria medição
+    private static final long SLACK = 4_096;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        if (!check()) System.exit(1);
+    }
+
+    /** Roda todas as verificações e imprime o relatório; false se alguma passou do limite. */
+    static boolean check() {
+        boolean ok = true;
+        for (SolverBackend backend : SolverBackend.values()) {
+            ok &= checkSolver(backend);
+            ok &= checkGenerator(backend);
+        }
+        return ok;
+    }
+
+    private static boolean checkSolver(SolverBackend backend) {
+        SudokuSolver solver = backend.create();
+        Board[] puzzles = Corpus.veryHard();
+        Board work = new Board();
+
+        for (int i=0;i<WARMUP;i++) solveOnce(solver, puzzles[i % puzzles.length], work);
+        long before = allocated();
+        for (int i=0;i<ROUNDS;i++) solveOnce(solver, puzzles[i % puzzles.length], work);
+        long bytes = allocated() - before;
+        return report(backend + " solve+countSolutions", bytes, SLACK);
+    }
+
+    private static void solveOnce(SudokuSolver solver, Board puzzle, Board work) {
+        Corpus.copy(puzzle, work);
+        if (solver.countSolutions(work, 2) != 1 || !solver.solve(work))
+            throw new IllegalStateException("puzzle sem solução única");
+    }
+
+    private static boolean checkGenerator(SolverBackend backend) {
+        Generator gen = new Generator(new SplittableRandom(Corpus.SEED), backend.create());
+        int rounds = ROUNDS / 10;
+        for (int i=0;i<WARMUP / 10;i++) gen.generate(Difficulty.HARD);
+
+        // cada geração só pode alocar o resultado: dois tabuleiros e o GeneratedPuzzle
+        long before = allocated();
+        Board board = new Board();
+        new GeneratedPuzzle(board, board.clone());
+        long perPuzzle = allocated() - before;
+
+        before = allocated();
+        for (int i=0;i<rounds;i++) gen.generate(Difficulty.HARD);
+        long bytes = allocated() - before;
+        return report(backend + " generate", bytes, perPuzzle * rounds + SLACK);
+    }
+
+    private static boolean report(String what, long bytes, long budget) {
+        boolean ok = bytes <= budget;
+        System.out.printf("%-32s %10d bytes (limite %d) %s%n", what, bytes, budget, ok ? "OK" : "FALHOU");
+        return ok;
+    }
+
+    private static long allocated() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
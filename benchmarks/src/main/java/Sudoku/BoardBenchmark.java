@@ -0,0 +1,50 @@
+package Sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Operações básicas do Board sobre os puzzles do corpus. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"easy", "hard"})
+    public String corpus;
+
+    private Board[] puzzles;
+    private int next;
+    private int move; // percorre as 729 combinações (célula, valor)
+
+    @Setup
+    public void setup() {
+        puzzles = Corpus.load(corpus);
+    }
+
+    private Board nextPuzzle() {
+        Board p = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return p;
+    }
+
+    @Benchmark
+    public boolean isValidMove() {
+        int m = move;
+        move = (m + 1) % 729;
+        int i = m / 9;
+        return puzzles[next].isValidMove(i / 9, i % 9, m % 9 + 1);
+    }
+
+    @Benchmark
+    public boolean hasVisibleConflicts() {
+        return nextPuzzle().hasVisibleConflicts();
+    }
+
+    @Benchmark
+    public Board cloneBoard() {
+        return nextPuzzle().clone();
+    }
+}
@@ -0,0 +1,54 @@
+package Sudoku;
+
+import java.util.SplittableRandom;
+
+/**
+ * Conjunto fixo de puzzles usado pelos benchmarks: fáceis gerados com semente
+ * fixa e muito difíceis conhecidos da literatura (todos com solução única).
+ */
+final class Corpus {
+    static final long SEED = 20240917L;
+    static final int EASY_SIZE = 32;
+
+    static final String[] VERY_HARD = {
+        "8..........36......7..9.2...5...7.......457.....1...3...1....68..85...1..9....4..", // Arto Inkala
+        "1....7.9..3..2...8..96..5....53..9...1..8...26....4...3......1..4......7..7...3..", // AI Escargot
+        "1.......2.9.4...5...6...7...5.9.3.......7.......85..4.7.....6...3...9.8...2.....1", // Easter Monster
+        "4.....8.5.3..........7......2.....6.....8.4......1.......6.3.7.5..2.....1.4......",
+        "...8.1..........435............7.8........1...2..3....6......75..34........2..6..", // 17 pistas
+        "..............3.85..1.2.......5.7.....4...1...9.......5......73..2.1........4...9",
+        "12.3....435....1....4........54..2..6...7.........8.9...31..5.......9.7.....6...8",
+        ".2.4.37.........32........4.4.2...7.8...5.........1...5.....9...3.9....7..1..86..",
+    };
+
+    private Corpus() {}
+
+    /** "easy" ou "hard"; cada chamada devolve tabuleiros novos. */
+    static Board[] load(String name) {
+        switch (name) {
+            case "easy": return easy();
+            case "hard": return veryHard();
+            default: throw new IllegalArgumentException("Corpus desconhecido: " + name);
+        }
+    }
+
+    static Board[] easy() {
+        Generator gen = new Generator(new SplittableRandom(SEED), new Solver());
+        Board[] boards = new Board[EASY_SIZE];
+        for (int i=0;i<boards.length;i++) boards[i] = gen.generate(Difficulty.EASY).initial;
+        return boards;
+    }
+
+    static Board[] veryHard() {
+        Board[] boards = new Board[VERY_HARD.length];
+        for (int i=0;i<boards.length;i++) boards[i] = Board.parse(VERY_HARD[i]);
+        return boards;
+    }
+
+    /** Copia os valores de src para dst sem alocar. */
+    static void copy(Board src, Board dst) {
+        for (int r=0;r<9;r++)
+            for (int c=0;c<9;c++)
+                dst.set(r,c, src.get(r,c));
+    }
+}
@@ -0,0 +1,37 @@
+package Sudoku;
+
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Generator.generate por dificuldade, com semente fixa. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeneratorBenchmark {
+    @Param({"EASY", "MEDIUM", "HARD"})
+    public String difficulty;
+
+    @Param({"MRV", "DLX"})
+    public String backend;
+
+    private Difficulty diff;
+    private Generator generator;
+
+    @Setup
+    public void setup() {
+        diff = Difficulty.valueOf(difficulty);
+        generator = new Generator(new SplittableRandom(Corpus.SEED),
+                SolverBackend.valueOf(backend.toUpperCase(Locale.ROOT)).create());
+    }
+
+    @Benchmark
+    public GeneratedPuzzle generate() {
+        return generator.generate(diff);
+    }
+}
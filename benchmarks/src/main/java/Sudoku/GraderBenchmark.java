@@ -0,0 +1,33 @@
+package Sudoku;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Grader.grade por corpus; a meta é ao menos 10 mil puzzles/s por núcleo. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GraderBenchmark {
+    @Param({"easy", "hard"})
+    public String corpus;
+
+    private final Grader grader = new Grader();
+    private Board[] puzzles;
+    private int next;
+
+    @Setup
+    public void setup() {
+        puzzles = Corpus.load(corpus);
+    }
+
+    @Benchmark
+    public int grade() {
+        Board p = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return grader.grade(p).rating;
+    }
+}
@@ -0,0 +1,49 @@
+package Sudoku;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/** Solver.solve e countSolutions(b, 2) para cada backend e corpus. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolverBenchmark {
+    @Param({"MRV", "DLX"})
+    public String backend;
+
+    @Param({"easy", "hard"})
+    public String corpus;
+
+    private SudokuSolver solver;
+    private Board[] puzzles;
+    private final Board work = new Board();
+    private int next;
+
+    @Setup
+    public void setup() {
+        solver = SolverBackend.valueOf(backend.toUpperCase(Locale.ROOT)).create();
+        puzzles = Corpus.load(corpus);
+    }
+
+    private Board nextPuzzle() {
+        Board p = puzzles[next];
+        next = (next + 1) % puzzles.length;
+        return p;
+    }
+
+    @Benchmark
+    public boolean solve() {
+        Corpus.copy(nextPuzzle(), work);
+        return solver.solve(work);
+    }
+
+    @Benchmark
+    public int countSolutions() {
+        return solver.countSolutions(nextPuzzle(), 2);
+    }
+}
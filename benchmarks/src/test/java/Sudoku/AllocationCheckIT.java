@@ -0,0 +1,13 @@
+package Sudoku;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Falha o build se solve, countSolutions ou generate voltarem a alocar (ver AllocationCheck). */
+class AllocationCheckIT {
+    @Test
+    void hotPathsDoNotAllocate() {
+        assertTrue(AllocationCheck.check(), "alocação acima do limite; veja o relatório acima");
+    }
+}